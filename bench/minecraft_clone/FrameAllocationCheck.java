@@ -0,0 +1,121 @@
+package minecraft_clone;
+
+import static org.lwjgl.glfw.GLFW.*;
+
+import org.joml.Vector3f;
+
+import minecraft_clone.engine.AllocationCheck;
+import minecraft_clone.engine.BaseShader;
+import minecraft_clone.engine.ChunkArena;
+import minecraft_clone.engine.DisplayManager;
+import minecraft_clone.engine.Loader;
+import minecraft_clone.engine.Renderer;
+import minecraft_clone.engine.Shader;
+import minecraft_clone.engine.VertexFormat;
+import minecraft_clone.entity.Camera;
+import minecraft_clone.render.Texture;
+import minecraft_clone.render.TextureAtlas;
+import minecraft_clone.world.Chunk;
+import minecraft_clone.world.ChunkManager;
+
+// Checks that a steady-state frame allocates nothing: culling the loaded chunks and submitting them for drawing.
+// Opens a hidden window for a real GL context and loads the world around the spawn the way the game does. Then it
+// turns the camera in place, one full turn to warm up and then measured turns. Every turn takes the same path, so a
+// real allocation shows up in each one; the JVM itself now and then allocates once on the thread after recompiling
+// (seen inside ForkJoinPool.externalPush), which is why one clean turn out of MEASURED_TURNS passes. Exits with status
+// 1 otherwise. Run from the project root with the game's classpath plus bench/; add -Dminecraft.softwareOcclusion=true
+// to cover the software occlusion pass as well.
+public class FrameAllocationCheck {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final int FRAMES_PER_TURN = 600;
+    private static final int MEASURED_TURNS = 3;
+    private static final int SETTLE_FRAMES = 120; // Frames with the view filled before measuring, for late border rebuilds
+    private static final long LOAD_TIMEOUT_NANOS = 120_000_000_000L;
+
+    public static void main(String[] args) {
+        glfwInit();
+        glfwWindowHint(GLFW_VISIBLE, GLFW_FALSE); // Hints set after glfwInit carry into createDisplay
+        DisplayManager displayManager = new DisplayManager();
+        displayManager.createDisplay("Frame allocation check", WIDTH, HEIGHT);
+
+        Camera camera = new Camera();
+        TextureAtlas atlas = new TextureAtlas(256, 16);
+        Loader loader = new Loader();
+        ChunkArena arena = new ChunkArena(loader, VertexFormat.FLOAT);
+        BaseShader chunkShader = new Shader("shaders/vertex.glsl", "shaders/fragment.glsl");
+        BaseShader crosshairShader = new Shader("shaders/crosshair_vertex.glsl", "shaders/crosshair_fragment.glsl");
+        Renderer renderer = new Renderer(camera, displayManager, atlas, chunkShader, crosshairShader);
+        Texture terrainTexture = new Texture("textures/terrain.png");
+        ChunkManager chunkManager = new ChunkManager(arena, atlas);
+        chunkManager.setSoftwareOcclusion(Boolean.getBoolean("minecraft.softwareOcclusion"));
+        chunkManager.preloadInitialChunks(camera.getPosition(), camera);
+
+        long loadStart = System.nanoTime();
+        int settled = 0;
+        while (settled < SETTLE_FRAMES) {
+            if (System.nanoTime() - loadStart > LOAD_TIMEOUT_NANOS) {
+                System.out.println("FAIL view did not fill: " + chunkManager.getLoadingStats());
+                System.exit(1);
+            }
+            chunkManager.updateChunks(camera);
+            chunkManager.uploadPendingMeshes();
+            settled = isViewFilled(chunkManager, camera) ? settled + 1 : 0;
+        }
+        System.out.println("Loaded in " + (System.nanoTime() - loadStart) / 1_000_000 + " ms: " + chunkManager.getLoadingStats());
+
+        AllocationCheck cull = new AllocationCheck("Chunk culling");
+        AllocationCheck render = new AllocationCheck("Chunk rendering");
+        turn(camera, displayManager, chunkManager, renderer, terrainTexture, cull, render); // Warm-up
+        for (int turn = 0; turn < MEASURED_TURNS; turn++) {
+            cull.reset();
+            render.reset();
+            turn(camera, displayManager, chunkManager, renderer, terrainTexture, cull, render);
+            if (AllocationCheck.allPassed(cull, render)) {
+                break;
+            }
+            System.out.println("Turn " + (turn + 1) + " allocated: " + cull.getStats() + "; " + render.getStats());
+        }
+        System.out.println(chunkManager.getCullingStats());
+
+        chunkManager.cleanup();
+        arena.cleanup();
+        loader.cleanup();
+        displayManager.closeDisplay();
+        AllocationCheck.exitWithResult(cull, render);
+    }
+
+    // Turns the camera once around in place, drawing a frame per step
+    private static void turn(Camera camera, DisplayManager displayManager, ChunkManager chunkManager, Renderer renderer,
+            Texture terrainTexture, AllocationCheck cull, AllocationCheck render) {
+        for (int frame = 0; frame < FRAMES_PER_TURN; frame++) {
+            camera.rotate(360.0f / FRAMES_PER_TURN, 0.0f);
+            displayManager.clearDisplay();
+            long start = cull.begin();
+            chunkManager.cullChunks(camera, WIDTH, HEIGHT);
+            cull.end(start);
+            start = render.begin();
+            renderer.renderChunks(chunkManager, terrainTexture);
+            render.end(start);
+            displayManager.updateDisplay();
+        }
+    }
+
+    // Every chunk within the render distance is loaded and has its mesh uploaded
+    private static boolean isViewFilled(ChunkManager chunkManager, Camera camera) {
+        int centerX = (int) Math.floor(camera.getPosition().x / Chunk.CHUNK_SIZE);
+        int centerZ = (int) Math.floor(camera.getPosition().z / Chunk.CHUNK_SIZE);
+        int distance = chunkManager.getRenderDistance();
+        Vector3f position = new Vector3f();
+        for (int x = centerX - distance; x <= centerX + distance; x++) {
+            for (int z = centerZ - distance; z <= centerZ + distance; z++) {
+                position.set(x * Chunk.CHUNK_SIZE, 0, z * Chunk.CHUNK_SIZE);
+                Chunk chunk = chunkManager.getChunkAt(position);
+                if (chunk == null || !chunk.isMeshGenerated()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,73 @@
+package minecraft_clone.engine;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+// Measures the heap the calling thread allocates between begin() and end(), for the allocation checks in bench/.
+// Callers warm up first and reset(), so pools can fill and buffers can grow; after that any run that allocates fails
+// the check. Each check's main() exits with status 1 when its check fails, so it can gate a build.
+public class AllocationCheck {
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final String name;
+    private long runs;
+    private long allocatingRuns;
+    private long allocatedBytes;
+    private long firstAllocatingRun = -1;
+
+    public AllocationCheck(String name) {
+        this.name = name;
+    }
+
+    // Returns the calling thread's allocation counter, to pass to end() on the same thread
+    public long begin() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public void end(long start) {
+        long allocated = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - start;
+        runs++;
+        if (allocated > 0) {
+            allocatedBytes += allocated;
+            if (allocatingRuns++ == 0) {
+                firstAllocatingRun = runs;
+            }
+        }
+    }
+
+    // Forgets the runs so far, after a warm-up or before measuring again
+    public void reset() {
+        runs = 0;
+        allocatingRuns = 0;
+        allocatedBytes = 0;
+        firstAllocatingRun = -1;
+    }
+
+    // True once some runs have been measured and none of them allocated
+    public boolean passed() {
+        return runs > 0 && allocatingRuns == 0;
+    }
+
+    public String getStats() {
+        String result = String.format("%s: %d of %d runs allocated (%d bytes)", name, allocatingRuns, runs, allocatedBytes);
+        return firstAllocatingRun < 0 ? result : result + ", first on run " + firstAllocatingRun;
+    }
+
+    public static boolean allPassed(AllocationCheck... checks) {
+        for (AllocationCheck check : checks) {
+            if (!check.passed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Prints every check's result and exits with status 1 if any of them failed
+    public static void exitWithResult(AllocationCheck... checks) {
+        for (AllocationCheck check : checks) {
+            System.out.println((check.passed() ? "PASS " : "FAIL ") + check.getStats());
+        }
+        System.exit(allPassed(checks) ? 0 : 1);
+    }
+}
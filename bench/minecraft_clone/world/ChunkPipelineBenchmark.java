@@ -0,0 +1,103 @@
+package minecraft_clone.world;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.joml.Vector3f;
+
+import com.sun.management.OperatingSystemMXBean;
+
+import minecraft_clone.engine.ChunkArena;
+import minecraft_clone.engine.Loader;
+import minecraft_clone.engine.VertexFormat;
+import minecraft_clone.render.TextureAtlas;
+
+// Times ChunkPipeline taking a square of chunks to MESH_READY with different numbers of ChunkJobScheduler workers,
+// and checks each result block for block against a run on the calling thread. The driving thread updates the
+// pipeline and then sleeps a millisecond, like a frame loop does, so it does not take CPU time from the workers; a
+// spinning driver makes extra workers look faster on few cores just by crowding it out. The first runs include JIT
+// warm-up, where more workers also win more of the CPU from the compiler threads, so compare the later runs; with a
+// single processor every worker count should come out about the same. Throughput counts every chunk generated, the
+// neighbor margin around the square included. Exits with status 1 if any run differs.
+public class ChunkPipelineBenchmark {
+    private static final long SEED = 12345;
+    private static final int DISTANCE = 16; // A 33x33-chunk square
+    private static final int[] WORKER_COUNTS = {1, 2, 4, 8};
+    private static final int RUNS = 5;
+    private static final OperatingSystemMXBean SYSTEM = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        ChunkArena arena = new ChunkArena(new Loader(), VertexFormat.PACKED);
+        TextureAtlas atlas = new TextureAtlas(256, 16);
+        TerrainGenerator terrain = new TerrainGenerator(SEED, 0, TerrainShape.DENSITY);
+
+        Map<Long, Chunk> reference = new ConcurrentHashMap<>();
+        ChunkPipeline pipeline = createPipeline(terrain, arena, atlas, reference);
+        requestSquare(pipeline);
+        pipeline.runUntilIdle();
+
+        boolean allMatched = true;
+        for (int run = 1; run <= RUNS; run++) {
+            for (int workers : WORKER_COUNTS) {
+                Map<Long, Chunk> ready = new ConcurrentHashMap<>();
+                pipeline = createPipeline(terrain, arena, atlas, ready);
+                requestSquare(pipeline);
+                ChunkJobScheduler scheduler = new ChunkJobScheduler(workers);
+                int wanted = (2 * DISTANCE + 1) * (2 * DISTANCE + 1);
+                long start = System.nanoTime();
+                long cpuStart = SYSTEM.getProcessCpuTime();
+                while (ready.size() < wanted) {
+                    pipeline.update(scheduler);
+                    Thread.sleep(1);
+                }
+                long elapsed = System.nanoTime() - start;
+                long cpu = SYSTEM.getProcessCpuTime() - cpuStart;
+                scheduler.shutdownNow();
+
+                boolean matched = true;
+                for (Map.Entry<Long, Chunk> entry : reference.entrySet()) {
+                    matched &= sameBlocks(entry.getValue(), ready.get(entry.getKey()));
+                }
+                allMatched &= matched;
+                System.out.printf("Run %d, %d workers: %d chunks (%d margin) in %.0f ms = %.0f chunks/s, CPU busy %.0f%%, %s%n",
+                        run, workers, pipeline.size(), pipeline.size() - wanted, elapsed / 1e6, pipeline.size() / (elapsed / 1e9),
+                        100.0 * cpu / elapsed / Runtime.getRuntime().availableProcessors(), matched ? "matches" : "DIFFERS FROM");
+            }
+        }
+        System.exit(allMatched ? 0 : 1);
+    }
+
+    private static ChunkPipeline createPipeline(TerrainGenerator terrain, ChunkArena arena, TextureAtlas atlas,
+            Map<Long, Chunk> ready) {
+        return new ChunkPipeline(terrain, new TerrainDecorator(SEED),
+                (chunkX, chunkZ) -> new Chunk(new Vector3f(chunkX * Chunk.CHUNK_SIZE, 0, chunkZ * Chunk.CHUNK_SIZE), arena,
+                        atlas, MeshingMode.GREEDY),
+                chunk -> ready.put(ChunkMap.key(chunk.getChunkX(), chunk.getChunkZ()), chunk));
+    }
+
+    private static void requestSquare(ChunkPipeline pipeline) {
+        for (int x = -DISTANCE; x <= DISTANCE; x++) {
+            for (int z = -DISTANCE; z <= DISTANCE; z++) {
+                pipeline.request(x, z, ChunkStatus.MESH_READY);
+            }
+        }
+    }
+
+    private static boolean sameBlocks(Chunk expected, Chunk actual) {
+        if (actual == null) {
+            return false;
+        }
+        for (int y = 0; y < Chunk.CHUNK_SIZE; y++) {
+            for (int z = 0; z < Chunk.CHUNK_SIZE; z++) {
+                for (int x = 0; x < Chunk.CHUNK_SIZE; x++) {
+                    if (expected.getLocalBlock(x, y, z) != actual.getLocalBlock(x, y, z)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,52 @@
+package minecraft_clone.world;
+
+import java.util.Random;
+
+// Times TerrainGenerator with the heightmap cache on and off. Each run fetches a square of heightmaps in several
+// passes, each shifted a few chunks as if the player were walking, then makes point height queries inside the last
+// square, like the spawn and any other height lookups do. Every configuration runs a few times; the first runs
+// include JIT warm-up.
+public class HeightmapCacheBenchmark {
+    private static final long SEED = 12345;
+    private static final int CACHE_CAPACITY = 4096; // As ChunkManager uses
+    private static final int DISTANCE = 16; // A 33x33-chunk square
+    private static final int PASSES = 4;
+    private static final int PASS_SHIFT = 4; // Chunks
+    private static final int POINT_QUERIES = 100_000;
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) {
+        for (int run = 1; run <= RUNS; run++) {
+            for (int capacity : new int[] {CACHE_CAPACITY, 0}) {
+                TerrainGenerator terrain = new TerrainGenerator(SEED, capacity, TerrainShape.DENSITY);
+                long start = System.nanoTime();
+                long checksum = fetch(terrain);
+                long elapsed = System.nanoTime() - start;
+                System.out.printf("Run %d, cache %s: %.1f ms, checksum %d, %s%n", run, capacity > 0 ? "on " : "off",
+                        elapsed / 1e6, checksum, terrain.getStats());
+            }
+        }
+    }
+
+    // Returns a sum of the heights read, so the work cannot be skipped and both configurations can be compared
+    private static long fetch(TerrainGenerator terrain) {
+        long checksum = 0;
+        for (int pass = 0; pass < PASSES; pass++) {
+            int centerX = pass * PASS_SHIFT;
+            for (int x = centerX - DISTANCE; x <= centerX + DISTANCE; x++) {
+                for (int z = -DISTANCE; z <= DISTANCE; z++) {
+                    checksum += terrain.getHeightmap(x, z).getHeight(0, 0);
+                }
+            }
+        }
+        Random random = new Random(SEED);
+        int minX = (PASSES - 1) * PASS_SHIFT - DISTANCE;
+        int side = (2 * DISTANCE + 1) * Chunk.CHUNK_SIZE;
+        for (int i = 0; i < POINT_QUERIES; i++) {
+            float worldX = minX * Chunk.CHUNK_SIZE + random.nextFloat() * side;
+            float worldZ = -DISTANCE * Chunk.CHUNK_SIZE + random.nextFloat() * side;
+            checksum += terrain.getHeight(worldX, worldZ);
+        }
+        return checksum;
+    }
+}
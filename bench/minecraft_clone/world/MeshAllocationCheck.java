@@ -0,0 +1,86 @@
+package minecraft_clone.world;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joml.Vector3f;
+
+import minecraft_clone.engine.AllocationCheck;
+import minecraft_clone.engine.ChunkArena;
+import minecraft_clone.engine.Loader;
+import minecraft_clone.engine.VertexFormat;
+import minecraft_clone.render.TextureAtlas;
+
+// Checks that a steady-state mesh build allocates nothing. Generates a square of chunks the way the game does, links
+// their neighbors and builds every chunk's mesh, all parts at once and one border part at a time, in both meshing
+// modes. One round warms the builder and mesh pools up; measured rounds follow, and like FrameAllocationCheck one
+// clean round out of MEASURED_ROUNDS passes. Exits with status 1 otherwise. Needs no GL context: meshes are only
+// built and released, never uploaded.
+public class MeshAllocationCheck {
+    private static final long SEED = 12345;
+    private static final int SIZE = 8; // Chunks along each side
+    private static final int MEASURED_ROUNDS = 3;
+    private static final int[] NEIGHBOR_X = {1, -1, 0, 0}; // Chunk.setNeighbor directions
+    private static final int[] NEIGHBOR_Z = {0, 0, 1, -1};
+
+    public static void main(String[] args) {
+        ChunkArena arena = new ChunkArena(new Loader(), VertexFormat.PACKED);
+        TextureAtlas atlas = new TextureAtlas(256, 16);
+        TerrainGenerator terrain = new TerrainGenerator(SEED, 0, TerrainShape.DENSITY);
+        ChunkMap<Chunk> chunks = new ChunkMap<>();
+        ChunkPipeline pipeline = new ChunkPipeline(terrain, new TerrainDecorator(SEED),
+                (chunkX, chunkZ) -> new Chunk(new Vector3f(chunkX * Chunk.CHUNK_SIZE, 0, chunkZ * Chunk.CHUNK_SIZE), arena,
+                        atlas, MeshingMode.GREEDY),
+                chunk -> chunks.put(ChunkMap.key(chunk.getChunkX(), chunk.getChunkZ()), chunk));
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                pipeline.request(x, z, ChunkStatus.MESH_READY);
+            }
+        }
+        pipeline.runUntilIdle();
+
+        List<Chunk> meshed = new ArrayList<>();
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                Chunk chunk = chunks.get(ChunkMap.key(x, z));
+                for (int direction = 0; direction < NEIGHBOR_X.length; direction++) {
+                    chunk.setNeighbor(direction, chunks.get(ChunkMap.key(x + NEIGHBOR_X[direction], z + NEIGHBOR_Z[direction])));
+                }
+                meshed.add(chunk);
+            }
+        }
+
+        AllocationCheck check = new AllocationCheck("Mesh build");
+        buildAll(meshed, check); // Warm-up
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            check.reset();
+            buildAll(meshed, check);
+            if (check.passed()) {
+                break;
+            }
+            System.out.println("Round " + (round + 1) + " allocated: " + check.getStats());
+        }
+        AllocationCheck.exitWithResult(check);
+    }
+
+    // Builds each chunk's whole mesh and then each border part alone, in every meshing mode
+    private static void buildAll(List<Chunk> chunks, AllocationCheck check) {
+        for (MeshingMode mode : MeshingMode.values()) {
+            for (int i = 0; i < chunks.size(); i++) {
+                Chunk chunk = chunks.get(i);
+                chunk.setMeshingMode(mode);
+                build(chunk, Chunk.ALL_MESH_PARTS, check);
+                for (int direction = 0; direction < NEIGHBOR_X.length; direction++) {
+                    build(chunk, 1 << Chunk.borderPart(direction), check);
+                }
+            }
+        }
+    }
+
+    private static void build(Chunk chunk, int parts, AllocationCheck check) {
+        long start = check.begin();
+        ChunkMesh mesh = chunk.buildMesh(parts);
+        check.end(start);
+        mesh.release();
+    }
+}
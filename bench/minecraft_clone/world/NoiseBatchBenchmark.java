@@ -0,0 +1,91 @@
+package minecraft_clone.world;
+
+import java.util.Random;
+
+// Checks PerlinNoise.fillOctaves against summing the scalar noise() octave by octave, bit for bit, for the two
+// configurations TerrainGenerator uses: 4 octaves from 0.01 for heights and 1 octave at 0.1 for glass. Chunk origins
+// are drawn near the world origin and out to 1.6 million blocks away, where float rounding differs the most. Then
+// times a 16x16 4-octave chunk both ways. Exits with status 1 if any sample differs.
+public class NoiseBatchBenchmark {
+    private static final long SEED = 12345;
+    private static final int SIZE = Chunk.CHUNK_SIZE;
+    private static final int CHECKED_CHUNKS = 10_000; // Per configuration, 256 samples each
+    private static final int NEAR_CHUNKS = 64; // Half of the origins are within this many chunks of 0
+    private static final int FAR_CHUNKS = 100_000; // The rest within this many
+    private static final int TIMED_CHUNKS = 20_000;
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        PerlinNoise noise = new PerlinNoise(SEED);
+        long mismatches = check(noise, 4, 0.01f, 0.5f) + check(noise, 1, 0.1f, 1.0f);
+
+        float[] batch = new float[SIZE * SIZE];
+        float[] scalar = new float[SIZE * SIZE];
+        for (int run = 1; run <= RUNS; run++) {
+            float batchSum = 0.0f;
+            float scalarSum = 0.0f;
+            long start = System.nanoTime();
+            for (int i = 0; i < TIMED_CHUNKS; i++) {
+                noise.fillOctaves(batch, i * SIZE, 0, SIZE, SIZE, 4, 0.01f, 0.5f);
+                batchSum += batch[i & 255];
+            }
+            long batchNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < TIMED_CHUNKS; i++) {
+                fillScalar(noise, scalar, i * SIZE, 0, 4, 0.01f, 0.5f);
+                scalarSum += scalar[i & 255];
+            }
+            long scalarNanos = System.nanoTime() - start;
+            // The checksums are printed so the JIT cannot drop the work; they are equal when both ways agree
+            System.out.printf("Run %d: fillOctaves %.1f us per chunk, scalar noise() %.1f us per chunk (checksums %s, %s)%n",
+                    run, batchNanos / 1e3 / TIMED_CHUNKS, scalarNanos / 1e3 / TIMED_CHUNKS, batchSum, scalarSum);
+        }
+
+        System.out.println(mismatches == 0 ? "PASS fillOctaves matches noise() bit for bit" : "FAIL " + mismatches + " samples differ");
+        System.exit(mismatches == 0 ? 0 : 1);
+    }
+
+    // Returns how many samples differ between the two ways for one configuration
+    private static long check(PerlinNoise noise, int octaves, float frequency, float persistence) {
+        Random random = new Random(SEED);
+        float[] batch = new float[SIZE * SIZE];
+        float[] scalar = new float[SIZE * SIZE];
+        long mismatches = 0;
+        for (int i = 0; i < CHECKED_CHUNKS; i++) {
+            int range = i % 2 == 0 ? NEAR_CHUNKS : FAR_CHUNKS;
+            float originX = (random.nextInt(2 * range + 1) - range) * SIZE;
+            float originZ = (random.nextInt(2 * range + 1) - range) * SIZE;
+            noise.fillOctaves(batch, originX, originZ, SIZE, SIZE, octaves, frequency, persistence);
+            fillScalar(noise, scalar, originX, originZ, octaves, frequency, persistence);
+            for (int j = 0; j < batch.length; j++) {
+                if (Float.floatToRawIntBits(batch[j]) != Float.floatToRawIntBits(scalar[j])) {
+                    if (mismatches++ == 0) {
+                        System.out.printf("First difference: %d octaves at %s, origin (%s, %s), sample %d: %s vs %s%n",
+                                octaves, frequency, originX, originZ, j, batch[j], scalar[j]);
+                    }
+                }
+            }
+        }
+        System.out.printf("%d octaves at %s: %d samples checked, %d differ%n", octaves, frequency,
+                (long) CHECKED_CHUNKS * SIZE * SIZE, mismatches);
+        return mismatches;
+    }
+
+    // The reference fillOctaves promises to match
+    private static void fillScalar(PerlinNoise noise, float[] out, float originX, float originZ, int octaves,
+            float frequency, float persistence) {
+        for (int z = 0; z < SIZE; z++) {
+            for (int x = 0; x < SIZE; x++) {
+                float value = 0.0f;
+                float amplitude = 1;
+                float octaveFrequency = frequency;
+                for (int octave = 0; octave < octaves; octave++) {
+                    value += noise.noise((originX + x) * octaveFrequency, (originZ + z) * octaveFrequency) * amplitude;
+                    amplitude *= persistence;
+                    octaveFrequency *= 2.0f;
+                }
+                out[x + z * SIZE] = value;
+            }
+        }
+    }
+}
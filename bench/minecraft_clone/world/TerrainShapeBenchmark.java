@@ -0,0 +1,54 @@
+package minecraft_clone.world;
+
+// Times the NOISE stage of each TerrainShape, against sampling the 3D noise once per block, which is what the
+// DENSITY lattice avoids. The NOISE stage is the heightmap plus the solid cells; SURFACE layers blocks the same way
+// for every shape, so it is left out. The per-block figure is the 4096 noise calls alone, without the bias, so it is
+// a lower bound on a per-block version of DENSITY. Each measurement runs a few times; the first runs include JIT
+// warm-up.
+public class TerrainShapeBenchmark {
+    private static final long SEED = 12345;
+    private static final int CACHE_CAPACITY = 4096; // As ChunkManager uses
+    private static final int CHUNKS = 2000;
+    private static final int ROW = 50; // Chunks are laid out in rows of this many
+    private static final float DENSITY_FREQUENCY = 0.04f; // As TerrainGenerator samples the density noise
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        for (int run = 1; run <= RUNS; run++) {
+            for (TerrainShape shape : TerrainShape.values()) {
+                TerrainGenerator terrain = new TerrainGenerator(SEED, CACHE_CAPACITY, shape);
+                long solidCells = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < CHUNKS; i++) {
+                    long[] solid = terrain.generateSolid(i % ROW, i / ROW);
+                    for (long bits : solid) {
+                        solidCells += Long.bitCount(bits);
+                    }
+                }
+                report(run, shape + " NOISE stage", System.nanoTime() - start, "solid cells " + solidCells);
+            }
+
+            PerlinNoise noise = new PerlinNoise(SEED);
+            float sum = 0.0f;
+            long start = System.nanoTime();
+            for (int i = 0; i < CHUNKS; i++) {
+                float originX = (i % ROW) * Chunk.CHUNK_SIZE;
+                float originZ = (i / ROW) * Chunk.CHUNK_SIZE;
+                for (int y = 0; y < Chunk.CHUNK_SIZE; y++) {
+                    for (int z = 0; z < Chunk.CHUNK_SIZE; z++) {
+                        for (int x = 0; x < Chunk.CHUNK_SIZE; x++) {
+                            sum += noise.noise((originX + x) * DENSITY_FREQUENCY, y * DENSITY_FREQUENCY,
+                                    (originZ + z) * DENSITY_FREQUENCY);
+                        }
+                    }
+                }
+            }
+            report(run, "Per-block 3D noise", System.nanoTime() - start, "sum " + sum);
+        }
+    }
+
+    // The result detail is printed so the JIT cannot drop the work
+    private static void report(int run, String name, long nanos, String result) {
+        System.out.printf("Run %d, %s: %.1f us per chunk (%s)%n", run, name, nanos / 1e3 / CHUNKS, result);
+    }
+}
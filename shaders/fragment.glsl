@@ -1,12 +1,18 @@
+#version 330 core
+
 in vec2 passTextureCoords;
+in vec2 passTileOrigin;
 in vec4 passColor;
 
 out vec4 fragColor;
 
 uniform sampler2D textureSampler;
+uniform float tileSize;
 
 void main() {
-    vec4 textureColor = texture(textureSampler, passTextureCoords);
+    // Texture coordinates are in tile units so merged quads repeat their atlas tile
+    vec2 atlasCoords = passTileOrigin + fract(passTextureCoords) * tileSize;
+    vec4 textureColor = texture(textureSampler, atlasCoords);
     
     // Combine texture color with vertex color (including alpha)
     fragColor = textureColor * passColor;
@@ -0,0 +1,30 @@
+#version 330 core
+
+// Chunk vertices packed into two uints by Chunk.putPackedVertex
+layout(location = 0) in uint packedPosition; // x, y, z, u, v (5 bits each), alpha (7 bits)
+layout(location = 1) in uint packedTexture;  // tile column, tile row (4 bits each), r, g, b (8 bits each)
+
+out vec2 passTextureCoords;
+out vec2 passTileOrigin;
+out vec4 passColor;
+
+uniform samplerBuffer chunkOrigins; // One chunk origin per ChunkArena block
+uniform mat4 view;
+uniform mat4 projection;
+uniform float tileSize;
+
+void main() {
+    // 64 must match ChunkArena.VERTICES_PER_BLOCK
+    vec3 origin = texelFetch(chunkOrigins, gl_VertexID / 64).xyz;
+    vec3 position = vec3(packedPosition & 31u, (packedPosition >> 5) & 31u, (packedPosition >> 10) & 31u) - 0.5;
+    vec2 textureCoords = vec2((packedPosition >> 15) & 31u, (packedPosition >> 20) & 31u);
+    float alpha = float(packedPosition >> 25) / 127.0;
+
+    vec2 tile = vec2(packedTexture & 15u, (packedTexture >> 4) & 15u);
+    vec3 color = vec3((packedTexture >> 8) & 255u, (packedTexture >> 16) & 255u, packedTexture >> 24) / 255.0;
+
+    gl_Position = projection * view * vec4(position + origin, 1.0);
+    passTextureCoords = textureCoords;
+    passTileOrigin = vec2(tile.x * tileSize, 1.0 - (tile.y + 1.0) * tileSize); // Same as TextureAtlas.getUVCoords
+    passColor = vec4(color, alpha);
+}
\ No newline at end of file
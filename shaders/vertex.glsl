@@ -1,16 +1,23 @@
+#version 330 core
+
 layout(location = 0) in vec3 position;
 layout(location = 1) in vec2 textureCoords;
 layout(location = 2) in vec4 color;
+layout(location = 3) in vec2 tileOrigin;
 
 out vec2 passTextureCoords;
+out vec2 passTileOrigin;
 out vec4 passColor;
 
-uniform mat4 model;
+uniform samplerBuffer chunkOrigins; // One chunk origin per ChunkArena block
 uniform mat4 view;
 uniform mat4 projection;
 
 void main() {
-    gl_Position = projection * view * model * vec4(position, 1.0);
+    // 64 must match ChunkArena.VERTICES_PER_BLOCK
+    vec3 origin = texelFetch(chunkOrigins, gl_VertexID / 64).xyz;
+    gl_Position = projection * view * vec4(position + origin, 1.0);
     passTextureCoords = textureCoords;
+    passTileOrigin = tileOrigin;
     passColor = color;
 }
\ No newline at end of file
@@ -2,11 +2,13 @@ package minecraft_clone;
 
 import minecraft_clone.engine.BaseLoader;
 import minecraft_clone.engine.BaseShader;
+import minecraft_clone.engine.ChunkArena;
 import minecraft_clone.engine.DisplayManager;
 import minecraft_clone.engine.InputManager;
 import minecraft_clone.engine.Loader;
 import minecraft_clone.engine.Renderer;
 import minecraft_clone.engine.Shader;
+import minecraft_clone.engine.VertexFormat;
 import minecraft_clone.entity.Camera;
 import minecraft_clone.hud.Crosshair;
 import minecraft_clone.render.Texture;
@@ -17,6 +19,7 @@ public class Minecraft implements BaseGame {
     private DisplayManager displayManager;
     private InputManager inputManager;
     private BaseLoader loader;
+    private ChunkArena chunkArena;
     private BaseShader chunkShader;
     private BaseShader crosshairShader;
     private Renderer renderer;
@@ -29,6 +32,9 @@ public class Minecraft implements BaseGame {
 
     private long lastChunkUpdate = 0;
     private static final long CHUNK_UPDATE_INTERVAL = 100;
+    private static final int TELEPORT_DISTANCE = 32; // Chunks per press of T, well past the render distance
+    // PACKED stores 8 bytes per chunk vertex instead of 44
+    private static final VertexFormat CHUNK_VERTEX_FORMAT = VertexFormat.FLOAT;
 
     public Minecraft() {
         displayManager = new DisplayManager();
@@ -40,15 +46,18 @@ public class Minecraft implements BaseGame {
         displayManager.createDisplay("Minecraft clone", 800, 600);
         inputManager.setupCallbacks(displayManager.getWindow());
         camera = new Camera();
-        renderer = new Renderer(camera, displayManager);
+        atlas = new TextureAtlas(256, 16);
 
         loader = new Loader();
-        chunkShader = new Shader("shaders/vertex.glsl", "shaders/fragment.glsl");
+        chunkArena = new ChunkArena(loader, CHUNK_VERTEX_FORMAT);
+        String chunkVertexShader = CHUNK_VERTEX_FORMAT == VertexFormat.PACKED ? "shaders/packed_vertex.glsl" : "shaders/vertex.glsl";
+        chunkShader = new Shader(chunkVertexShader, "shaders/fragment.glsl");
         crosshairShader = new Shader("shaders/crosshair_vertex.glsl", "shaders/crosshair_fragment.glsl");
-        atlas = new TextureAtlas(256, 16);
+        renderer = new Renderer(camera, displayManager, atlas, chunkShader, crosshairShader);
         terrainTexture = new Texture("textures/terrain.png");
         iconsTexture = new Texture("textures/icons.png");
-        chunkManager = new ChunkManager(loader, atlas);
+        chunkManager = new ChunkManager(chunkArena, atlas);
+        chunkManager.setSoftwareOcclusion(Boolean.getBoolean("minecraft.softwareOcclusion")); // Off unless asked for
 
         crosshair = new Crosshair(loader, atlas);
         crosshair.generateMesh(displayManager);
@@ -59,15 +68,25 @@ public class Minecraft implements BaseGame {
     @Override
     public void update(float deltaTime) {
         camera.update(deltaTime, inputManager);
+        if (inputManager.consumeTeleportRequest()) {
+            chunkManager.teleport(camera, TELEPORT_DISTANCE);
+        }
         chunkManager.cullChunks(camera, displayManager.getWidth(), displayManager.getHeight());
 
         long currentTime = System.currentTimeMillis();
         if (currentTime - lastChunkUpdate > CHUNK_UPDATE_INTERVAL) {
-            chunkManager.updateChunks(camera.getPosition());
+            chunkManager.updateChunks(camera);
             lastChunkUpdate = currentTime;
             // Debug output
             System.out.println("Chunk Status: " + chunkManager.getLoadingStats());
+            System.out.println("Chunk jobs: " + chunkManager.getJobStats());
+            System.out.println("Chunk prefetch: " + chunkManager.getPrefetchStats());
             System.out.println("Frustum culling status: " + chunkManager.getCullingStats());
+            System.out.println("Frustum culling cost: " + chunkManager.getCullVisitStats());
+            System.out.println("Render state: " + renderer.getStateStats());
+            System.out.println("Chunk geometry: " + chunkArena.getStats());
+            System.out.println("Terrain: " + chunkManager.getTerrain().getStats());
+            renderer.resetStateStats(); // So each report covers one interval
         }
     }
 
@@ -75,9 +94,10 @@ public class Minecraft implements BaseGame {
     public void render() {
         displayManager.clearDisplay();
 
-        renderer.renderChunks(chunkManager, chunkShader, terrainTexture);
+        chunkManager.uploadPendingMeshes();
+        renderer.renderChunks(chunkManager, terrainTexture);
 
-        renderer.renderCrosshair(crosshair, crosshairShader, iconsTexture);
+        renderer.renderCrosshair(crosshair, iconsTexture);
 
         displayManager.updateDisplay();
     }
@@ -86,6 +106,7 @@ public class Minecraft implements BaseGame {
     public void cleanup() {
         chunkManager.cleanup();
         chunkShader.cleanup();
+        chunkArena.cleanup();
         loader.cleanup();
         inputManager.freeInputCallbacks();
         displayManager.closeDisplay();
@@ -7,7 +7,13 @@ public interface BaseShader {
     void start();
     void stop();
     void cleanup();
+    // Handles to keep for uniforms loaded every frame; they skip the by-name lookup
+    UniformMatrix4f getUniformMatrix4f(String name);
+    UniformInt getUniformInt(String name);
+    UniformFloat getUniformFloat(String name);
+    UniformVector2f getUniformVector2f(String name);
     void loadUniformMatrix4f(String name, Matrix4f value);
     void loadUniformInt(String name, int value);
+    void loadUniformFloat(String name, float value);
     void loadUniformVector2f(String name, Vector2f value);
 }
@@ -0,0 +1,409 @@
+package minecraft_clone.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.lwjgl.PointerBuffer;
+
+import static org.lwjgl.opengl.GL13.*;
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+// Suballocates chunk meshes out of a few large vertex buffers ("regions") so all queued chunks of a region
+// draw with one glMultiDrawElementsBaseVertex call. Space is handed out in blocks of BLOCK_QUADS quads.
+// GL 3.3 has no per-draw ID, so each block's chunk origin is stored in a texture buffer and the vertex
+// shader fetches it with gl_VertexID / VERTICES_PER_BLOCK (gl_VertexID includes the base vertex).
+// All methods must run on the GL thread.
+public class ChunkArena {
+    public static final int BLOCK_QUADS = 16;
+    public static final int VERTICES_PER_BLOCK = BLOCK_QUADS * 4; // Must match the chunk vertex shaders
+    public static final int ORIGIN_TEXTURE_UNIT = 1;
+    private static final long REGION_BYTES = 32L * 1024 * 1024;
+    // Compact a region once most of its free space is split into holes too small to be useful
+    private static final float COMPACTION_FRAGMENTATION = 0.5f;
+    private static final int COMPACTION_MIN_FREE_RANGES = 32;
+
+    // A mesh's place in the arena; owned by the arena and updated in place when compaction moves it
+    public static final class Allocation {
+        private Region region;
+        private int firstBlock;
+        private int blockCount;
+        private int quadCount;
+        private int slot; // Index in region.allocations
+        private float originX, originY, originZ;
+
+        public int getQuadCount() {
+            return quadCount;
+        }
+    }
+
+    private static final class Region {
+        final int vertexArrayObjectID;
+        int vertexBufferObjectID;
+        final int originBufferID;
+        final int originTextureID;
+        final int capacityBlocks;
+        final TreeMap<Integer, Integer> freeRanges = new TreeMap<>(); // First block -> length in blocks
+        int freeBlocks;
+        final List<Allocation> allocations = new ArrayList<>();
+
+        // Draws queued since the last flush
+        IntBuffer counts;
+        PointerBuffer offsets;
+        IntBuffer baseVertices;
+        int queuedDraws;
+
+        Region(int vertexArrayObjectID, int vertexBufferObjectID, int originBufferID, int originTextureID, int capacityBlocks) {
+            this.vertexArrayObjectID = vertexArrayObjectID;
+            this.vertexBufferObjectID = vertexBufferObjectID;
+            this.originBufferID = originBufferID;
+            this.originTextureID = originTextureID;
+            this.capacityBlocks = capacityBlocks;
+            this.freeRanges.put(0, capacityBlocks);
+            this.freeBlocks = capacityBlocks;
+            this.counts = memAllocInt(64);
+            this.offsets = memAllocPointer(64);
+            this.baseVertices = memAllocInt(64);
+        }
+
+        int largestFreeRange() {
+            int largest = 0;
+            for (int length : freeRanges.values()) {
+                largest = Math.max(largest, length);
+            }
+            return largest;
+        }
+
+        // 0 when free space is one contiguous range, approaching 1 as it splinters
+        float fragmentation() {
+            return freeBlocks == 0 ? 0.0f : 1.0f - (float) largestFreeRange() / freeBlocks;
+        }
+    }
+
+    private final BaseLoader loader;
+    private final VertexFormat format;
+    private final int blockBytes;
+    private final int regionBlocks;
+    private final List<Region> regions = new ArrayList<>();
+    private Region lastQueuedRegion;
+    private FloatBuffer originScratch = memAllocFloat(4 * 1024);
+    private int compactions;
+    private boolean layoutChanged; // Allocations made or freed since fragmentation was last checked
+
+    public ChunkArena(BaseLoader loader, VertexFormat format) {
+        this.loader = loader;
+        this.format = format;
+        this.blockBytes = VERTICES_PER_BLOCK * format.bytesPerVertex;
+        this.regionBlocks = (int) (REGION_BYTES / blockBytes);
+    }
+
+    public VertexFormat getFormat() {
+        return format;
+    }
+
+    // Stores a mesh for the chunk at the given origin, reusing the existing allocation when the mesh still fits.
+    // Returns the allocation to keep, or null for an empty mesh (the old allocation is freed either way).
+    public Allocation upload(Allocation existing, ByteBuffer vertices, int quadCount, float originX, float originY, float originZ) {
+        if (quadCount > Loader.MAX_SHORT_INDEXED_QUADS) {
+            // A 16x16x16 chunk emits at most 12288 quads, so this only trips if chunks grow
+            throw new IllegalArgumentException("Mesh of " + quadCount + " quads exceeds 16-bit indices");
+        }
+        if (quadCount == 0) {
+            free(existing);
+            return null;
+        }
+        int blocks = blocksFor(quadCount);
+        Allocation allocation = existing;
+        // Reuse in place unless the mesh outgrew it or now wastes more than half of it
+        if (allocation == null || blocks > allocation.blockCount || blocks * 2 < allocation.blockCount) {
+            free(existing);
+            allocation = allocate(blocks);
+        }
+        allocation.quadCount = quadCount;
+        allocation.originX = originX;
+        allocation.originY = originY;
+        allocation.originZ = originZ;
+
+        Region region = allocation.region;
+        glBindBuffer(GL_ARRAY_BUFFER, region.vertexBufferObjectID);
+        glBufferSubData(GL_ARRAY_BUFFER, (long) allocation.firstBlock * blockBytes, vertices);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        writeOrigins(region, allocation.firstBlock, allocation.blockCount, originX, originY, originZ);
+        return allocation;
+    }
+
+    public void free(Allocation allocation) {
+        if (allocation == null || allocation.region == null) {
+            return;
+        }
+        Region region = allocation.region;
+        int start = allocation.firstBlock;
+        int length = allocation.blockCount;
+
+        // Merge with the free ranges on either side
+        Map.Entry<Integer, Integer> before = region.freeRanges.floorEntry(start);
+        if (before != null && before.getKey() + before.getValue() == start) {
+            region.freeRanges.remove(before.getKey());
+            start = before.getKey();
+            length += before.getValue();
+        }
+        Integer afterLength = region.freeRanges.remove(start + length);
+        if (afterLength != null) {
+            length += afterLength;
+        }
+        region.freeRanges.put(start, length);
+        region.freeBlocks += allocation.blockCount;
+        layoutChanged = true;
+
+        // Swap-remove from the region's live list
+        Allocation last = region.allocations.remove(region.allocations.size() - 1);
+        if (last != allocation) {
+            region.allocations.set(allocation.slot, last);
+            last.slot = allocation.slot;
+        }
+        allocation.region = null;
+    }
+
+    // Adds a draw to its region's batch. With preserveOrder, switching regions flushes first so draws stay in
+    // queue order (needed for back-to-front transparency); without it each region draws once at flush().
+    public void queue(Allocation allocation, boolean preserveOrder, GLStateCache glState) {
+        Region region = allocation.region;
+        if (preserveOrder && lastQueuedRegion != null && lastQueuedRegion != region) {
+            flush(glState);
+        }
+        if (region.queuedDraws == region.counts.capacity()) {
+            int capacity = region.counts.capacity() * 2;
+            region.counts = memRealloc(region.counts, capacity);
+            region.offsets = memRealloc(region.offsets, capacity);
+            region.baseVertices = memRealloc(region.baseVertices, capacity);
+        }
+        int draw = region.queuedDraws++;
+        region.counts.put(draw, allocation.quadCount * 6);
+        region.offsets.put(draw, 0L); // Every draw starts at the top of the shared quad index buffer
+        region.baseVertices.put(draw, allocation.firstBlock * VERTICES_PER_BLOCK);
+        lastQueuedRegion = region;
+    }
+
+    // Draws everything queued, one multi-draw call per region. The chunk shader must be in use.
+    public void flush(GLStateCache glState) {
+        for (int i = 0; i < regions.size(); i++) {
+            Region region = regions.get(i);
+            if (region.queuedDraws == 0) {
+                continue;
+            }
+            glState.bindVertexArray(region.vertexArrayObjectID);
+            glActiveTexture(GL_TEXTURE0 + ORIGIN_TEXTURE_UNIT);
+            glBindTexture(GL_TEXTURE_BUFFER, region.originTextureID);
+            glActiveTexture(GL_TEXTURE0);
+
+            region.counts.limit(region.queuedDraws);
+            region.offsets.limit(region.queuedDraws);
+            region.baseVertices.limit(region.queuedDraws);
+            glMultiDrawElementsBaseVertex(GL_TRIANGLES, region.counts, GL_UNSIGNED_SHORT, region.offsets, region.baseVertices);
+            region.counts.clear();
+            region.offsets.clear();
+            region.baseVertices.clear();
+            region.queuedDraws = 0;
+        }
+        lastQueuedRegion = null;
+    }
+
+    // Compacts the most fragmented region if it is past the threshold; cheap to call every frame.
+    // Returns true if a region was compacted, which rebinds VAOs behind any GLStateCache.
+    public boolean compactIfFragmented() {
+        if (!layoutChanged) {
+            return false;
+        }
+        layoutChanged = false;
+        Region worst = null;
+        for (int i = 0; i < regions.size(); i++) {
+            Region region = regions.get(i);
+            if (region.freeRanges.size() >= COMPACTION_MIN_FREE_RANGES
+                    && region.fragmentation() > COMPACTION_FRAGMENTATION
+                    && (worst == null || region.fragmentation() > worst.fragmentation())) {
+                worst = region;
+            }
+        }
+        if (worst == null) {
+            return false;
+        }
+        compact(worst);
+        return true;
+    }
+
+    // Copies the region's live meshes to the front of a fresh buffer, leaving one free range at the end
+    private void compact(Region region) {
+        int newBufferID = glGenBuffers();
+        glBindBuffer(GL_COPY_WRITE_BUFFER, newBufferID);
+        glBufferData(GL_COPY_WRITE_BUFFER, (long) region.capacityBlocks * blockBytes, GL_STATIC_DRAW);
+        glBindBuffer(GL_COPY_READ_BUFFER, region.vertexBufferObjectID);
+
+        region.allocations.sort(Comparator.comparingInt(allocation -> allocation.firstBlock));
+        int nextBlock = 0;
+        for (int i = 0; i < region.allocations.size(); i++) {
+            Allocation allocation = region.allocations.get(i);
+            glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER,
+                    (long) allocation.firstBlock * blockBytes, (long) nextBlock * blockBytes, (long) allocation.blockCount * blockBytes);
+            allocation.firstBlock = nextBlock;
+            allocation.slot = i;
+            writeOrigins(region, nextBlock, allocation.blockCount, allocation.originX, allocation.originY, allocation.originZ);
+            nextBlock += allocation.blockCount;
+        }
+        glBindBuffer(GL_COPY_READ_BUFFER, 0);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+
+        // Point the region's VAO at the new buffer
+        glBindVertexArray(region.vertexArrayObjectID);
+        glBindBuffer(GL_ARRAY_BUFFER, newBufferID);
+        format.setAttributePointers();
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindVertexArray(0);
+        glDeleteBuffers(region.vertexBufferObjectID);
+        region.vertexBufferObjectID = newBufferID;
+
+        region.freeRanges.clear();
+        if (nextBlock < region.capacityBlocks) {
+            region.freeRanges.put(nextBlock, region.capacityBlocks - nextBlock);
+        }
+        compactions++;
+    }
+
+    private Allocation allocate(int blocks) {
+        for (Region region : regions) {
+            Allocation allocation = allocateIn(region, blocks);
+            if (allocation != null) {
+                return allocation;
+            }
+        }
+        Region region = createRegion();
+        regions.add(region);
+        return allocateIn(region, blocks);
+    }
+
+    // First fit; returns null if no free range of the region is large enough
+    private static Allocation allocateIn(Region region, int blocks) {
+        if (region.freeBlocks < blocks) {
+            return null;
+        }
+        for (Map.Entry<Integer, Integer> range : region.freeRanges.entrySet()) {
+            int start = range.getKey();
+            int length = range.getValue();
+            if (length < blocks) {
+                continue;
+            }
+            region.freeRanges.remove(start);
+            if (length > blocks) {
+                region.freeRanges.put(start + blocks, length - blocks);
+            }
+            region.freeBlocks -= blocks;
+
+            Allocation allocation = new Allocation();
+            allocation.region = region;
+            allocation.firstBlock = start;
+            allocation.blockCount = blocks;
+            allocation.slot = region.allocations.size();
+            region.allocations.add(allocation);
+            return allocation;
+        }
+        return null;
+    }
+
+    private Region createRegion() {
+        int vertexArrayObjectID = glGenVertexArrays();
+        glBindVertexArray(vertexArrayObjectID);
+        int vertexBufferObjectID = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, vertexBufferObjectID);
+        glBufferData(GL_ARRAY_BUFFER, (long) regionBlocks * blockBytes, GL_STATIC_DRAW);
+        format.setAttributePointers();
+        loader.bindQuadIndexBuffer(Loader.MAX_SHORT_INDEXED_QUADS); // Sized once for the largest possible draw
+        glBindVertexArray(0);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+        // One RGBA32F texel (origin x, y, z, unused) per block
+        int originBufferID = glGenBuffers();
+        glBindBuffer(GL_TEXTURE_BUFFER, originBufferID);
+        glBufferData(GL_TEXTURE_BUFFER, (long) regionBlocks * 4 * Float.BYTES, GL_STATIC_DRAW);
+        int originTextureID = glGenTextures();
+        glBindTexture(GL_TEXTURE_BUFFER, originTextureID);
+        glTexBuffer(GL_TEXTURE_BUFFER, GL_RGBA32F, originBufferID);
+        glBindTexture(GL_TEXTURE_BUFFER, 0);
+        glBindBuffer(GL_TEXTURE_BUFFER, 0);
+
+        return new Region(vertexArrayObjectID, vertexBufferObjectID, originBufferID, originTextureID, regionBlocks);
+    }
+
+    private void writeOrigins(Region region, int firstBlock, int blockCount, float originX, float originY, float originZ) {
+        if (originScratch.capacity() < blockCount * 4) {
+            originScratch = memRealloc(originScratch, blockCount * 4);
+        }
+        originScratch.clear();
+        for (int i = 0; i < blockCount; i++) {
+            originScratch.put(originX).put(originY).put(originZ).put(0.0f);
+        }
+        originScratch.flip();
+        glBindBuffer(GL_TEXTURE_BUFFER, region.originBufferID);
+        glBufferSubData(GL_TEXTURE_BUFFER, (long) firstBlock * 4 * Float.BYTES, originScratch);
+        glBindBuffer(GL_TEXTURE_BUFFER, 0);
+    }
+
+    private static int blocksFor(int quadCount) {
+        return (quadCount + BLOCK_QUADS - 1) / BLOCK_QUADS;
+    }
+
+    public long getUsedBytes() {
+        long usedBlocks = 0;
+        for (Region region : regions) {
+            usedBlocks += region.capacityBlocks - region.freeBlocks;
+        }
+        return usedBlocks * blockBytes;
+    }
+
+    public long getCapacityBytes() {
+        return (long) regions.size() * regionBlocks * blockBytes;
+    }
+
+    public int getFreeRangeCount() {
+        int count = 0;
+        for (Region region : regions) {
+            count += region.freeRanges.size();
+        }
+        return count;
+    }
+
+    // Share of free space outside each region's largest free range, averaged over regions weighted by free space
+    public float getFragmentation() {
+        long freeBlocks = 0;
+        long strandedBlocks = 0;
+        for (Region region : regions) {
+            freeBlocks += region.freeBlocks;
+            strandedBlocks += region.freeBlocks - region.largestFreeRange();
+        }
+        return freeBlocks == 0 ? 0.0f : (float) strandedBlocks / freeBlocks;
+    }
+
+    public String getStats() {
+        return String.format("Arena - Regions: %d, Used: %.1f/%.1f MiB, Free ranges: %d, Fragmentation: %.1f%%, Compactions: %d",
+                regions.size(), getUsedBytes() / (1024.0f * 1024.0f), getCapacityBytes() / (1024.0f * 1024.0f),
+                getFreeRangeCount(), getFragmentation() * 100.0f, compactions);
+    }
+
+    public void cleanup() {
+        for (Region region : regions) {
+            glDeleteVertexArrays(region.vertexArrayObjectID);
+            glDeleteBuffers(region.vertexBufferObjectID);
+            glDeleteBuffers(region.originBufferID);
+            glDeleteTextures(region.originTextureID);
+            memFree(region.counts);
+            memFree(region.offsets);
+            memFree(region.baseVertices);
+        }
+        regions.clear();
+        memFree(originScratch);
+    }
+}
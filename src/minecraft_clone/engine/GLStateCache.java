@@ -0,0 +1,111 @@
+package minecraft_clone.engine;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL30.*;
+
+// Remembers the GL state set through it and skips calls that would not change anything.
+// State starts out unknown, so the first call for each piece of state always reaches GL.
+// Only state changed through this cache is tracked; code that calls GL directly must not touch the same state.
+public class GLStateCache {
+    private static final int UNKNOWN = -1;
+
+    private int depthTest = UNKNOWN; // 0 or 1 once known
+    private int cullFace = UNKNOWN;
+    private int blend = UNKNOWN;
+    private int depthMask = UNKNOWN;
+    private int cullFaceMode = UNKNOWN;
+    private int blendSource = UNKNOWN;
+    private int blendDestination = UNKNOWN;
+    private int vertexArray = UNKNOWN;
+
+    private long issuedCalls;
+    private long elidedCalls;
+
+    public void setDepthTest(boolean enabled) {
+        depthTest = setCapability(GL_DEPTH_TEST, depthTest, enabled);
+    }
+
+    public void setCullFace(boolean enabled) {
+        cullFace = setCapability(GL_CULL_FACE, cullFace, enabled);
+    }
+
+    public void setBlend(boolean enabled) {
+        blend = setCapability(GL_BLEND, blend, enabled);
+    }
+
+    public void setDepthMask(boolean enabled) {
+        int value = enabled ? 1 : 0;
+        if (depthMask == value) {
+            elidedCalls++;
+            return;
+        }
+        glDepthMask(enabled);
+        depthMask = value;
+        issuedCalls++;
+    }
+
+    public void cullFace(int mode) {
+        if (cullFaceMode == mode) {
+            elidedCalls++;
+            return;
+        }
+        glCullFace(mode);
+        cullFaceMode = mode;
+        issuedCalls++;
+    }
+
+    public void blendFunc(int source, int destination) {
+        if (blendSource == source && blendDestination == destination) {
+            elidedCalls++;
+            return;
+        }
+        glBlendFunc(source, destination);
+        blendSource = source;
+        blendDestination = destination;
+        issuedCalls++;
+    }
+
+    // Vertex attribute enables are part of the VAO, so binding it is all a draw needs
+    public void bindVertexArray(int vertexArrayObjectID) {
+        if (vertexArray == vertexArrayObjectID) {
+            elidedCalls++;
+            return;
+        }
+        glBindVertexArray(vertexArrayObjectID);
+        vertexArray = vertexArrayObjectID;
+        issuedCalls++;
+    }
+
+    // Call when a VAO may have been bound or deleted behind the cache's back, e.g. after uploading meshes
+    public void invalidateVertexArray() {
+        vertexArray = UNKNOWN;
+    }
+
+    private int setCapability(int capability, int current, boolean enabled) {
+        int value = enabled ? 1 : 0;
+        if (current == value) {
+            elidedCalls++;
+            return current;
+        }
+        if (enabled) {
+            glEnable(capability);
+        } else {
+            glDisable(capability);
+        }
+        issuedCalls++;
+        return value;
+    }
+
+    public long getIssuedCalls() {
+        return issuedCalls;
+    }
+
+    public long getElidedCalls() {
+        return elidedCalls;
+    }
+
+    public void resetCounters() {
+        issuedCalls = 0;
+        elidedCalls = 0;
+    }
+}
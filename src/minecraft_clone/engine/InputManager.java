@@ -18,6 +18,7 @@ public class InputManager {
     private static long window;
     private static GLFWCursorPosCallback cursorCallback;
     private static GLFWKeyCallback keyCallback;
+    private static boolean teleportRequested; // Debug teleport key pressed since the last check
     private float speed = 5.0f;       // Movement speed (units per second)
     private float sensitivity = 0.1f; // Mouse sensitivity (degrees per pixel)
 
@@ -49,6 +50,9 @@ public class InputManager {
                 if (key == GLFW_KEY_ESCAPE && action == GLFW_RELEASE) {
                     glfwSetWindowShouldClose(window, true);
                 }
+                if (key == GLFW_KEY_T && action == GLFW_PRESS) {
+                    teleportRequested = true;
+                }
             }
         };
         glfwSetKeyCallback(win, keyCallback);
@@ -58,6 +62,13 @@ public class InputManager {
         return glfwGetKey(window, key) == GLFW_PRESS;
     }
 
+    // True once per press of the debug teleport key
+    public boolean consumeTeleportRequest() {
+        boolean requested = teleportRequested;
+        teleportRequested = false;
+        return requested;
+    }
+
     public void resetMouseDelta() {
         totalDeltaX = 0;
         totalDeltaY = 0;
@@ -2,6 +2,7 @@ package minecraft_clone.engine;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,34 +13,28 @@ public class Loader implements BaseLoader {
     private List<Integer> vertexArrayObjects = new ArrayList<>();
     private List<Integer> vertexBufferObjects = new ArrayList<>();
 
-    @Override
-    public RawModel loadToVertexArrayObject(float[] vertices, int[] indices, int vertexSize) {
-        List<Integer> vertexBufferObjectIDs = new ArrayList<>();
-        int vertexArrayObjectID = createVertexArrayObject();
-        IntBuffer intBuffer = bindIndicesBuffer(indices, vertexBufferObjectIDs);
-        FloatBuffer positionFloatBuffer = storeDataInAttributeList(0, 3, vertexSize, vertices, vertexBufferObjectIDs); // position (x, y, z)
-        FloatBuffer uvMappingFloatBuffer = storeDataInAttributeList(1, 2, vertexSize, vertices, vertexBufferObjectIDs); // uv (u, v)
-        FloatBuffer colorFloatBuffer = storeDataInAttributeList(2, 4, vertexSize, vertices, vertexBufferObjectIDs); // color (r, g, b, a)
-        unbindVertexArrayObject();
-        memFree(intBuffer);
-        memFree(positionFloatBuffer);
-        memFree(uvMappingFloatBuffer);
-        memFree(colorFloatBuffer);
-        return new RawModel(vertexArrayObjectID, vertexBufferObjectIDs , indices.length);
-    }
+    // Every chunk mesh is a list of quads, so all of them share one element buffer of 0,1,2,2,3,0 patterns.
+    // Meshes whose vertices fit 16-bit indices use the short buffer; larger ones fall back to the int buffer.
+    public static final int MAX_SHORT_INDEXED_QUADS = 65536 / 4;
+    private int shortQuadIndexBufferID;
+    private int shortQuadIndexCapacity; // In quads
+    private int intQuadIndexBufferID;
+    private int intQuadIndexCapacity;
 
     @Override
     public RawModel loadTo2DVertexArrayObject(float[] vertices, int[] indices, int vertexSize) {
-        List<Integer> vertexBufferObjectIDs = new ArrayList<>();
         int vertexArrayObjectID = createVertexArrayObject();
-        IntBuffer intBuffer = bindIndicesBuffer(indices, vertexBufferObjectIDs);
-        FloatBuffer positionFloatBuffer = storeDataInAttributeList(0, 2, vertexSize, vertices, vertexBufferObjectIDs); // position (x, y)
-        FloatBuffer uvMappingFloatBuffer = storeDataInAttributeList(1, 2, vertexSize, vertices, vertexBufferObjectIDs); // uv (u, v)
+        IntBuffer intBuffer = storeDataInIntBuffer(indices);
+        FloatBuffer floatBuffer = storeDataInFloatBuffer(vertices);
+        bindIndicesBuffer(intBuffer);
+        storeInterleavedData(floatBuffer);
+        setAttributePointer(0, 2, vertexSize * Float.BYTES, 0); // position (x, y)
+        setAttributePointer(1, 2, vertexSize * Float.BYTES, 3 * Float.BYTES); // uv (u, v)
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
         unbindVertexArrayObject();
         memFree(intBuffer);
-        memFree(positionFloatBuffer);
-        memFree(uvMappingFloatBuffer);
-        return new RawModel(vertexArrayObjectID, vertexBufferObjectIDs, indices.length);
+        memFree(floatBuffer);
+        return new RawModel(vertexArrayObjectID, indices.length);
     }
 
     private int createVertexArrayObject() {
@@ -49,14 +44,61 @@ public class Loader implements BaseLoader {
         return vertexArrayObjectID;
     }
 
-    private IntBuffer bindIndicesBuffer(int[] indices, List<Integer> vertexBufferObjectIDs) {
+    private void bindIndicesBuffer(IntBuffer indices) {
         int vertexBufferObjectID = glGenBuffers();
         vertexBufferObjects.add(vertexBufferObjectID);
-        vertexBufferObjectIDs.add(vertexBufferObjectID);
         glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, vertexBufferObjectID);
-        IntBuffer intBuffer = storeDataInIntBuffer(indices);
-        glBufferData(GL_ELEMENT_ARRAY_BUFFER, intBuffer, GL_STATIC_DRAW);
-        return intBuffer;
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
+    }
+
+    // Binds the shared quad index buffer that covers quadCount quads to the bound VAO and returns its index type
+    @Override
+    public int bindQuadIndexBuffer(int quadCount) {
+        if (quadCount <= MAX_SHORT_INDEXED_QUADS) {
+            if (quadCount > shortQuadIndexCapacity) {
+                shortQuadIndexCapacity = Math.min(MAX_SHORT_INDEXED_QUADS, Math.max(quadCount, shortQuadIndexCapacity * 2));
+                shortQuadIndexBufferID = growQuadIndexBuffer(shortQuadIndexBufferID, shortQuadIndexCapacity, true);
+            } else {
+                glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, shortQuadIndexBufferID);
+            }
+            return GL_UNSIGNED_SHORT;
+        }
+        if (quadCount > intQuadIndexCapacity) {
+            intQuadIndexCapacity = Math.max(quadCount, intQuadIndexCapacity * 2);
+            intQuadIndexBufferID = growQuadIndexBuffer(intQuadIndexBufferID, intQuadIndexCapacity, false);
+        } else {
+            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, intQuadIndexBufferID);
+        }
+        return GL_UNSIGNED_INT;
+    }
+
+    // Refills the buffer in place so VAOs already pointing at it see the larger contents
+    private int growQuadIndexBuffer(int bufferID, int quadCount, boolean shortIndices) {
+        if (bufferID == 0) {
+            bufferID = glGenBuffers();
+            vertexBufferObjects.add(bufferID);
+        }
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, bufferID);
+        if (shortIndices) {
+            ShortBuffer indices = memAllocShort(quadCount * 6);
+            for (int vertex = 0; vertex < quadCount * 4; vertex += 4) {
+                indices.put((short) vertex).put((short) (vertex + 1)).put((short) (vertex + 2))
+                        .put((short) (vertex + 2)).put((short) (vertex + 3)).put((short) vertex);
+            }
+            indices.flip();
+            glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
+            memFree(indices);
+        } else {
+            IntBuffer indices = memAllocInt(quadCount * 6);
+            for (int vertex = 0; vertex < quadCount * 4; vertex += 4) {
+                indices.put(vertex).put(vertex + 1).put(vertex + 2)
+                        .put(vertex + 2).put(vertex + 3).put(vertex);
+            }
+            indices.flip();
+            glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
+            memFree(indices);
+        }
+        return bufferID;
     }
 
     private IntBuffer storeDataInIntBuffer(int[] data) {
@@ -65,32 +107,16 @@ public class Loader implements BaseLoader {
         return intBuffer;
     }
 
-    private FloatBuffer storeDataInAttributeList(int attributeNumber, int size, int vertexSize, float[] data, List<Integer> vertexBufferObjectIDs) {
+    private void storeInterleavedData(FloatBuffer data) {
         int vertexBufferObjectID = glGenBuffers();
         vertexBufferObjects.add(vertexBufferObjectID);
-        vertexBufferObjectIDs.add(vertexBufferObjectID);
         glBindBuffer(GL_ARRAY_BUFFER, vertexBufferObjectID);
+        glBufferData(GL_ARRAY_BUFFER, data, GL_STATIC_DRAW);
+    }
 
-        FloatBuffer buffer = storeDataInFloatBuffer(data);
-        glBufferData(GL_ARRAY_BUFFER, buffer, GL_STATIC_DRAW);
-
-        switch (attributeNumber) {
-        case 0 -> {
-            glVertexAttribPointer(attributeNumber, size, GL_FLOAT, false, vertexSize * Float.BYTES, 0); // position
-            glEnableVertexAttribArray(attributeNumber);
-        }
-        case 1 -> {
-            glVertexAttribPointer(attributeNumber, size, GL_FLOAT, false, vertexSize * Float.BYTES, 3 * Float.BYTES); // UV
-            glEnableVertexAttribArray(attributeNumber);
-        }
-        case 2 -> {
-            glVertexAttribPointer(attributeNumber, size, GL_FLOAT, false, vertexSize * Float.BYTES, 5 * Float.BYTES); // Color
-            glEnableVertexAttribArray(attributeNumber);
-        }
-        }
-
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-        return buffer;
+    private static void setAttributePointer(int attributeNumber, int size, int stride, int offset) {
+        glVertexAttribPointer(attributeNumber, size, GL_FLOAT, false, stride, offset);
+        glEnableVertexAttribArray(attributeNumber);
     }
 
     private FloatBuffer storeDataInFloatBuffer(float[] data) {
@@ -115,14 +141,6 @@ public class Loader implements BaseLoader {
         glDeleteVertexArrays(vertexArrayObjectID);
     }
 
-    @Override
-    public void deleteVertexBufferObjects(List<Integer> vertexBufferObjectIDs) {
-        for (int vertexBufferObjectID : vertexBufferObjectIDs) {
-            vertexBufferObjects.removeIf(id -> id.equals(vertexBufferObjectID));
-            glDeleteBuffers(vertexBufferObjectID);
-        }
-    }
-
     private static void unbindVertexArrayObject() {
         glBindVertexArray(0);
     }
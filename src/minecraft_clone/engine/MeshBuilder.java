@@ -0,0 +1,92 @@
+package minecraft_clone.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+// Off-heap vertex buffer that meshes are written into directly and uploaded from without copying.
+// The buffer grows geometrically and is kept between meshes, so steady-state meshing allocates nothing.
+// Only quads are built, so there are no indices: the loader draws them with its shared quad index buffer.
+// Usage: reset(), then beginQuad() / 4 x put vertex data / endQuad() per quad, then finish() before uploading.
+public class MeshBuilder {
+    private static final int INITIAL_QUADS = 256;
+    private static final Set<MeshBuilder> liveBuilders = ConcurrentHashMap.newKeySet();
+
+    private final VertexFormat format;
+    private ByteBuffer vertices;
+    private int quadCount;
+
+    public MeshBuilder(VertexFormat format) {
+        this.format = format;
+        this.vertices = memAlloc(INITIAL_QUADS * 4 * format.bytesPerVertex);
+        liveBuilders.add(this);
+    }
+
+    public VertexFormat getFormat() {
+        return format;
+    }
+
+    public void reset() {
+        vertices.clear();
+        quadCount = 0;
+    }
+
+    // Makes room for one more quad (4 vertices)
+    public void beginQuad() {
+        if (vertices.remaining() < 4 * format.bytesPerVertex) {
+            int position = vertices.position();
+            vertices = memRealloc(vertices, vertices.capacity() * 2);
+            vertices.position(position);
+        }
+    }
+
+    public void put(float value) {
+        vertices.putFloat(value);
+    }
+
+    public void putInt(int value) {
+        vertices.putInt(value);
+    }
+
+    // The 4 vertices put since beginQuad() are drawn as triangles 0,1,2 and 2,3,0
+    public void endQuad() {
+        quadCount++;
+    }
+
+    // Flips the buffer so it can be handed to the loader
+    public void finish() {
+        vertices.flip();
+    }
+
+    public ByteBuffer getVertices() {
+        return vertices;
+    }
+
+    public int getQuadCount() {
+        return quadCount;
+    }
+
+    // Bytes that will be uploaded, valid after finish()
+    public long getSizeInBytes() {
+        return vertices.remaining();
+    }
+
+    public boolean isEmpty() {
+        return quadCount == 0;
+    }
+
+    public void free() {
+        if (liveBuilders.remove(this)) {
+            memFree(vertices);
+        }
+    }
+
+    // Frees every builder still alive, including pooled ones and any a worker thread never returned
+    public static void freeAll() {
+        for (MeshBuilder builder : liveBuilders) {
+            builder.free();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package minecraft_clone.engine;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Hands out reset MeshBuilders to meshing threads and takes them back once their data has been uploaded.
+// Builders keep their grown buffers while pooled; the pool is bounded and frees any builder it cannot hold.
+public class MeshBuilderPool {
+    private final ArrayBlockingQueue<MeshBuilder>[] freeBuilders; // Indexed by VertexFormat ordinal
+
+    @SuppressWarnings("unchecked")
+    public MeshBuilderPool(int capacityPerFormat) {
+        this.freeBuilders = new ArrayBlockingQueue[VertexFormat.values().length];
+        for (int i = 0; i < freeBuilders.length; i++) {
+            freeBuilders[i] = new ArrayBlockingQueue<>(capacityPerFormat);
+        }
+    }
+
+    public MeshBuilder acquire(VertexFormat format) {
+        MeshBuilder builder = freeBuilders[format.ordinal()].poll();
+        if (builder == null) {
+            builder = new MeshBuilder(format);
+        }
+        builder.reset();
+        return builder;
+    }
+
+    public void release(MeshBuilder builder) {
+        if (!freeBuilders[builder.getFormat().ordinal()].offer(builder)) {
+            builder.free();
+        }
+    }
+}
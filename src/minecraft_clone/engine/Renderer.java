@@ -3,114 +3,128 @@ package minecraft_clone.engine;
 import minecraft_clone.entity.Camera;
 import minecraft_clone.hud.Crosshair;
 import minecraft_clone.render.Texture;
+import minecraft_clone.render.TextureAtlas;
 import minecraft_clone.world.Chunk;
 import minecraft_clone.world.ChunkManager;
 
+import java.util.List;
+
 import static org.lwjgl.opengl.GL13.*;
 import static org.lwjgl.opengl.GL30.*;
 
-import org.joml.Matrix4f;
 import org.joml.Vector2f;
 
 public class Renderer {
     private final Camera camera;
     private final DisplayManager displayManager;
-
-    public Renderer(Camera camera, DisplayManager displayManager) {
+    private final TextureAtlas atlas;
+    private final BaseShader chunkShader;
+    private final BaseShader crosshairShader;
+    // Resolved once after the shaders are linked, so frames neither look uniforms up by name nor allocate
+    private final UniformMatrix4f viewUniform;
+    private final UniformMatrix4f projectionUniform;
+    private final UniformInt textureSamplerUniform;
+    private final UniformFloat tileSizeUniform;
+    private final UniformInt chunkOriginsUniform;
+    private final UniformVector2f screenSizeUniform;
+    private final Vector2f screenSize = new Vector2f();
+    private final GLStateCache glState = new GLStateCache();
+
+    public Renderer(Camera camera, DisplayManager displayManager, TextureAtlas atlas, BaseShader chunkShader, BaseShader crosshairShader) {
         this.camera = camera;
         this.displayManager = displayManager;
+        this.atlas = atlas;
+        this.chunkShader = chunkShader;
+        this.crosshairShader = crosshairShader;
+        this.viewUniform = chunkShader.getUniformMatrix4f("view");
+        this.projectionUniform = chunkShader.getUniformMatrix4f("projection");
+        this.textureSamplerUniform = chunkShader.getUniformInt("textureSampler");
+        this.tileSizeUniform = chunkShader.getUniformFloat("tileSize");
+        this.chunkOriginsUniform = chunkShader.getUniformInt("chunkOrigins");
+        this.screenSizeUniform = crosshairShader.getUniformVector2f("screenSize");
     }
 
-    public void renderChunks(ChunkManager chunkManager, BaseShader shader, Texture texture) {
-        shader.start();
-        shader.loadUniformMatrix4f("view", camera.getViewMatrix());
-        shader.loadUniformMatrix4f("projection", camera.getProjectionMatrix(displayManager.getWidth(), displayManager.getHeight()));
-        shader.loadUniformInt("textureSampler", 0);
+    public void renderChunks(ChunkManager chunkManager, Texture texture) {
+        glState.invalidateVertexArray(); // Mesh uploads bind VAOs directly
+        chunkShader.start();
+        viewUniform.load(camera.getViewMatrix());
+        projectionUniform.load(camera.getProjectionMatrix(displayManager.getWidth(), displayManager.getHeight()));
+        textureSamplerUniform.load(0);
+        tileSizeUniform.load(atlas.getTileSize());
+        chunkOriginsUniform.load(ChunkArena.ORIGIN_TEXTURE_UNIT);
+        ChunkArena arena = chunkManager.getArena();
         texture.bind();
         glActiveTexture(GL_TEXTURE0);
 
-        // First pass: Render all opaque blocks
-        glEnable(GL_CULL_FACE);
-        glCullFace(GL_BACK);
-        glDisable(GL_BLEND);
-        glDepthMask(true);
-        for (Chunk chunk : chunkManager.getVisibleOpaqueChunks()) {
-            renderChunkOpaque(chunk, shader);
+        // First pass: Render all opaque blocks, in any order, with one draw call per arena region
+        glState.setCullFace(true);
+        glState.cullFace(GL_BACK);
+        glState.setBlend(false);
+        glState.setDepthMask(true);
+        List<Chunk> opaqueChunks = chunkManager.getVisibleOpaqueChunks();
+        for (int i = 0; i < opaqueChunks.size(); i++) { // Indexed loops avoid an iterator per pass
+            Chunk chunk = opaqueChunks.get(i);
+            for (int part = 0; part < Chunk.MESH_PARTS; part++) {
+                if (chunk.getOpaqueMesh(part) != null) {
+                    arena.queue(chunk.getOpaqueMesh(part), false, glState);
+                }
+            }
         }
+        arena.flush(glState);
 
         // Second pass: Render all transparent blocks
-        glDisable(GL_CULL_FACE);
-        glEnable(GL_BLEND);
-        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
-        glDepthMask(false); // Don't write to depth buffer for transparent objects
-
-        for (Chunk chunk : chunkManager.getVisibleTransparentChunks()) {
-            renderChunkTransparent(chunk, shader);
+        glState.setCullFace(false);
+        glState.setBlend(true);
+        glState.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+        glState.setDepthMask(false); // Don't write to depth buffer for transparent objects
+
+        // Chunks arrive sorted back to front, so this pass keeps their order
+        List<Chunk> transparentChunks = chunkManager.getVisibleTransparentChunks();
+        for (int i = 0; i < transparentChunks.size(); i++) {
+            Chunk chunk = transparentChunks.get(i);
+            for (int part = 0; part < Chunk.MESH_PARTS; part++) {
+                if (chunk.getTransparentMesh(part) != null) {
+                    arena.queue(chunk.getTransparentMesh(part), true, glState);
+                }
+            }
         }
+        arena.flush(glState);
 
         // Restore state
-        glDepthMask(true);
-        glDisable(GL_BLEND);
+        glState.setDepthMask(true);
+        glState.setBlend(false);
+        glState.bindVertexArray(0);
         
         texture.unbind();
-        shader.stop();
+        chunkShader.stop();
     }
 
-    public void renderCrosshair(Crosshair crosshair, BaseShader shader, Texture texture) {
-        glDisable(GL_DEPTH_TEST); // Draw overlay on top
-        glEnable(GL_BLEND);
-        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+    public void renderCrosshair(Crosshair crosshair, Texture texture) {
+        glState.setDepthTest(false); // Draw overlay on top
+        glState.setBlend(true);
+        glState.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
 
         glActiveTexture(GL_TEXTURE0);
         RawModel model = crosshair.getModel();
         texture.bind();
-        shader.start();
-        shader.loadUniformVector2f("screenSize", new Vector2f(displayManager.getWidth(), displayManager.getHeight()));
+        crosshairShader.start();
+        screenSizeUniform.load(screenSize.set(displayManager.getWidth(), displayManager.getHeight()));
 
-        glBindVertexArray(model.getVertexArrayObjectID());
-        glEnableVertexAttribArray(0);
-        glEnableVertexAttribArray(1);
+        glState.bindVertexArray(model.getVertexArrayObjectID());
         glDrawElements(GL_TRIANGLES, model.getVertexCount(), GL_UNSIGNED_INT, 0);
-        glDisableVertexAttribArray(0);
-        glDisableVertexAttribArray(1);
-        glBindVertexArray(0);
+        glState.bindVertexArray(0);
 
-        shader.stop();
-        glDisable(GL_BLEND);
-        glEnable(GL_DEPTH_TEST);
+        crosshairShader.stop();
+        glState.setBlend(false);
+        glState.setDepthTest(true);
     }
 
-    private void renderChunkOpaque(Chunk chunk, BaseShader shader) {
-        RawModel opaqueModel = chunk.getOpaqueModel();
-        if (opaqueModel != null && opaqueModel.getVertexCount() > 0) {
-            shader.loadUniformMatrix4f("model", new Matrix4f().translate(chunk.getPosition()));
-
-            glBindVertexArray(opaqueModel.getVertexArrayObjectID());
-            glEnableVertexAttribArray(0); // Position
-            glEnableVertexAttribArray(1); // Texture coords
-            glEnableVertexAttribArray(2); // Color
-            glDrawElements(GL_TRIANGLES, opaqueModel.getVertexCount(), GL_UNSIGNED_INT, 0);
-            glDisableVertexAttribArray(2);
-            glDisableVertexAttribArray(1);
-            glDisableVertexAttribArray(0);
-            glBindVertexArray(0);
-        }
+    // Calls counted since the last resetStateStats()
+    public String getStateStats() {
+        return String.format("GL state calls - Issued: %d, Elided: %d", glState.getIssuedCalls(), glState.getElidedCalls());
     }
 
-    private void renderChunkTransparent(Chunk chunk, BaseShader shader) {
-        RawModel transparentModel = chunk.getTransparentModel();
-        if (transparentModel != null && transparentModel.getVertexCount() > 0) {
-            shader.loadUniformMatrix4f("model", new Matrix4f().translate(chunk.getPosition()));
-
-            glBindVertexArray(transparentModel.getVertexArrayObjectID());
-            glEnableVertexAttribArray(0); // Position
-            glEnableVertexAttribArray(1); // Texture coords
-            glEnableVertexAttribArray(2); // Color
-            glDrawElements(GL_TRIANGLES, transparentModel.getVertexCount(), GL_UNSIGNED_INT, 0);
-            glDisableVertexAttribArray(2);
-            glDisableVertexAttribArray(1);
-            glDisableVertexAttribArray(0);
-            glBindVertexArray(0);
-        }
+    public void resetStateStats() {
+        glState.resetCounters();
     }
 }
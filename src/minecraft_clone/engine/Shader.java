@@ -4,14 +4,23 @@ import org.joml.Matrix4f;
 import org.joml.Vector2f;
 import org.lwjgl.system.MemoryStack;
 
-import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.lwjgl.opengl.GL20.*;
 
 public class Shader implements BaseShader {
     private final int programID;
+    // Uniform locations are read once after linking; handles are created on first use and shared,
+    // so the by-name loaders and the typed handles see the same cached values
+    private final Map<String, Integer> uniformLocations = new HashMap<>();
+    private final Map<String, UniformMatrix4f> matrix4fUniforms = new HashMap<>();
+    private final Map<String, UniformInt> intUniforms = new HashMap<>();
+    private final Map<String, UniformFloat> floatUniforms = new HashMap<>();
+    private final Map<String, UniformVector2f> vector2fUniforms = new HashMap<>();
 
     public Shader(String vertexPath, String fragmentPath) {
         String vertexCode = loadShader(vertexPath);
@@ -29,6 +38,25 @@ public class Shader implements BaseShader {
         }
         glDeleteShader(vertexID);
         glDeleteShader(fragmentID);
+        resolveUniformLocations();
+    }
+
+    private void resolveUniformLocations() {
+        int uniformCount = glGetProgrami(programID, GL_ACTIVE_UNIFORMS);
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer size = stack.mallocInt(1);
+            IntBuffer type = stack.mallocInt(1);
+            for (int i = 0; i < uniformCount; i++) {
+                String name = glGetActiveUniform(programID, i, size, type);
+                uniformLocations.put(name, glGetUniformLocation(programID, name));
+            }
+        }
+    }
+
+    // -1 for names the linked program doesn't use; GL ignores loads to it
+    private int getUniformLocation(String name) {
+        Integer location = uniformLocations.get(name);
+        return location != null ? location : -1;
     }
 
     private int compileShader(String source, int type) {
@@ -65,23 +93,62 @@ public class Shader implements BaseShader {
     }
 
     @Override
-    public void loadUniformMatrix4f(String name, Matrix4f matrix) {
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            FloatBuffer floatBuffer = stack.mallocFloat(16);
-            matrix.get(floatBuffer);
-            glUniformMatrix4fv(glGetUniformLocation(programID, name), false, floatBuffer);
+    public UniformMatrix4f getUniformMatrix4f(String name) {
+        UniformMatrix4f uniform = matrix4fUniforms.get(name);
+        if (uniform == null) {
+            uniform = new UniformMatrix4f(getUniformLocation(name));
+            matrix4fUniforms.put(name, uniform);
         }
+        return uniform;
+    }
+
+    @Override
+    public UniformInt getUniformInt(String name) {
+        UniformInt uniform = intUniforms.get(name);
+        if (uniform == null) {
+            uniform = new UniformInt(getUniformLocation(name));
+            intUniforms.put(name, uniform);
+        }
+        return uniform;
+    }
+
+    @Override
+    public UniformFloat getUniformFloat(String name) {
+        UniformFloat uniform = floatUniforms.get(name);
+        if (uniform == null) {
+            uniform = new UniformFloat(getUniformLocation(name));
+            floatUniforms.put(name, uniform);
+        }
+        return uniform;
+    }
+
+    @Override
+    public UniformVector2f getUniformVector2f(String name) {
+        UniformVector2f uniform = vector2fUniforms.get(name);
+        if (uniform == null) {
+            uniform = new UniformVector2f(getUniformLocation(name));
+            vector2fUniforms.put(name, uniform);
+        }
+        return uniform;
+    }
+
+    @Override
+    public void loadUniformMatrix4f(String name, Matrix4f matrix) {
+        getUniformMatrix4f(name).load(matrix);
     }
 
     @Override
     public void loadUniformInt(String name, int value) {
-        int location = glGetUniformLocation(programID, name);
-        glUniform1i(location, value);
+        getUniformInt(name).load(value);
+    }
+
+    @Override
+    public void loadUniformFloat(String name, float value) {
+        getUniformFloat(name).load(value);
     }
 
     @Override
     public void loadUniformVector2f(String name, Vector2f value) {
-        int location = glGetUniformLocation(programID, name);
-        glUniform2f(location, value.x(), value.y());
+        getUniformVector2f(name).load(value);
     }
 }
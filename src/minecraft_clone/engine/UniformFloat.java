@@ -0,0 +1,24 @@
+package minecraft_clone.engine;
+
+import static org.lwjgl.opengl.GL20.*;
+
+// A float uniform resolved at link time; loading the value it already holds is skipped
+public class UniformFloat {
+    private final int location;
+    private boolean loaded;
+    private float value;
+
+    UniformFloat(int location) {
+        this.location = location;
+    }
+
+    // The owning shader must be in use
+    public void load(float value) {
+        if (loaded && this.value == value) {
+            return;
+        }
+        glUniform1f(location, value);
+        this.value = value;
+        this.loaded = true;
+    }
+}
@@ -0,0 +1,25 @@
+package minecraft_clone.engine;
+
+import static org.lwjgl.opengl.GL20.*;
+
+// An int (or sampler) uniform resolved at link time. Uniform values persist in the program,
+// so loading the value it already holds is skipped.
+public class UniformInt {
+    private final int location;
+    private boolean loaded;
+    private int value;
+
+    UniformInt(int location) {
+        this.location = location;
+    }
+
+    // The owning shader must be in use
+    public void load(int value) {
+        if (loaded && this.value == value) {
+            return;
+        }
+        glUniform1i(location, value);
+        this.value = value;
+        this.loaded = true;
+    }
+}
@@ -0,0 +1,26 @@
+package minecraft_clone.engine;
+
+import org.joml.Matrix4f;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL20.*;
+
+// A mat4 uniform whose location was resolved when its shader was linked; load() only uploads the value
+public class UniformMatrix4f {
+    private final int location;
+
+    UniformMatrix4f(int location) {
+        this.location = location;
+    }
+
+    // The owning shader must be in use
+    public void load(Matrix4f value) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            FloatBuffer floatBuffer = stack.mallocFloat(16);
+            value.get(floatBuffer);
+            glUniformMatrix4fv(location, false, floatBuffer);
+        }
+    }
+}
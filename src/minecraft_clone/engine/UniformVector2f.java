@@ -0,0 +1,27 @@
+package minecraft_clone.engine;
+
+import org.joml.Vector2f;
+
+import static org.lwjgl.opengl.GL20.*;
+
+// A vec2 uniform resolved at link time; loading the value it already holds is skipped
+public class UniformVector2f {
+    private final int location;
+    private boolean loaded;
+    private float x, y;
+
+    UniformVector2f(int location) {
+        this.location = location;
+    }
+
+    // The owning shader must be in use
+    public void load(Vector2f value) {
+        if (loaded && x == value.x() && y == value.y()) {
+            return;
+        }
+        glUniform2f(location, value.x(), value.y());
+        x = value.x();
+        y = value.y();
+        loaded = true;
+    }
+}
@@ -0,0 +1,42 @@
+package minecraft_clone.engine;
+
+import static org.lwjgl.opengl.GL30.*;
+
+public enum VertexFormat {
+    FLOAT(11 * Float.BYTES, 4),   // x, y, z, u, v, r, g, b, a, tileU, tileV as floats
+    PACKED(2 * Integer.BYTES, 2); // Two uints: position, tile-unit uv and alpha; then tile index and rgb
+
+    public final int bytesPerVertex;
+    public final int attributeCount;
+
+    VertexFormat(int bytesPerVertex, int attributeCount) {
+        this.bytesPerVertex = bytesPerVertex;
+        this.attributeCount = attributeCount;
+    }
+
+    // Points and enables this format's attributes on the bound VAO, reading from the buffer bound to GL_ARRAY_BUFFER
+    void setAttributePointers() {
+        int stride = bytesPerVertex;
+        switch (this) {
+        case FLOAT -> {
+            // One interleaved buffer: position (x, y, z), uv (u, v), color (r, g, b, a), tile origin (u, v)
+            setFloatPointer(0, 3, stride, 0);
+            setFloatPointer(1, 2, stride, 3 * Float.BYTES);
+            setFloatPointer(2, 4, stride, 5 * Float.BYTES);
+            setFloatPointer(3, 2, stride, 9 * Float.BYTES);
+        }
+        case PACKED -> {
+            // Two uints decoded in packed_vertex.glsl: position/uv/alpha, then tile/rgb
+            glVertexAttribIPointer(0, 1, GL_UNSIGNED_INT, stride, 0);
+            glEnableVertexAttribArray(0);
+            glVertexAttribIPointer(1, 1, GL_UNSIGNED_INT, stride, Integer.BYTES);
+            glEnableVertexAttribArray(1);
+        }
+        }
+    }
+
+    private static void setFloatPointer(int attributeNumber, int size, int stride, int offset) {
+        glVertexAttribPointer(attributeNumber, size, GL_FLOAT, false, stride, offset);
+        glEnableVertexAttribArray(attributeNumber);
+    }
+}
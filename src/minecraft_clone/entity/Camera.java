@@ -5,12 +5,31 @@ import org.joml.Vector3f;
 import org.lwjgl.glfw.GLFW;
 
 import minecraft_clone.engine.InputManager;
+import minecraft_clone.render.Frustum;
 
 public class Camera {
+    private static final Vector3f WORLD_UP = new Vector3f(0, 1, 0);
+
     private Vector3f position; // Camera position in 3D space
     private float yaw;         // Rotation around the vertical axis (in degrees)
     private float pitch;       // Rotation around the horizontal axis (in degrees)
 
+    // Derived state is cached and only recomputed after the camera moves, rotates or the viewport resizes.
+    // Getters return these shared instances, so callers must treat them as read-only.
+    private final Vector3f forward = new Vector3f();
+    private final Vector3f right = new Vector3f();
+    private final Vector3f target = new Vector3f();
+    private final Vector3f movement = new Vector3f();
+    private final Matrix4f viewMatrix = new Matrix4f();
+    private final Matrix4f projectionMatrix = new Matrix4f();
+    private final Matrix4f projectionViewMatrix = new Matrix4f();
+    private final Frustum frustum = new Frustum();
+    private boolean orientationDirty = true;
+    private boolean viewDirty = true;
+    private boolean projectionViewDirty = true;
+    private int projectionWidth = -1;
+    private int projectionHeight = -1;
+
     // Constructor initializes the camera at origin with no rotation
     public Camera() {
         position = new Vector3f(0, 0, 0);
@@ -22,18 +41,18 @@ public class Camera {
         float cappedDeltaTime = Math.min(deltaTime, 0.05f);
 
         inputManager.updateSmoothedDeltas();
-        Vector3f movement = new Vector3f();
+        movement.set(0, 0, 0);
         if (InputManager.isKeyPressed(GLFW.GLFW_KEY_W)) {
             movement.add(getForward()); // Move forward
         }
         if (InputManager.isKeyPressed(GLFW.GLFW_KEY_S)) {
-            movement.add(getForward().mul(-1)); // Move backward
+            movement.sub(getForward()); // Move backward
         }
         if (InputManager.isKeyPressed(GLFW.GLFW_KEY_A)) {
             movement.add(getRight()); // Move left
         }
         if (InputManager.isKeyPressed(GLFW.GLFW_KEY_D)) {
-            movement.add(getRight().mul(-1)); // Move right
+            movement.sub(getRight()); // Move right
         }
 
         if (movement.lengthSquared() > 0) {
@@ -49,6 +68,7 @@ public class Camera {
     // Move the camera by adding a displacement vector to its position
     public void move(Vector3f displacement) {
         position.add(displacement);
+        viewDirty = true;
     }
 
     // Rotate the camera by adjusting yaw and pitch, with pitch clamped to prevent flipping
@@ -58,28 +78,39 @@ public class Camera {
         // Clamp pitch to avoid camera flipping (between -89 and 89 degrees)
         if (pitch > 89.0f) pitch = 89.0f;
         if (pitch < -89.0f) pitch = -89.0f;
+        if (deltaYaw != 0 || deltaPitch != 0) {
+            orientationDirty = true;
+            viewDirty = true;
+        }
     }
 
-    // Compute the forward vector based on yaw and pitch
+    // Forward vector based on yaw and pitch
     public Vector3f getForward() {
+        updateOrientation();
+        return forward;
+    }
+
+    // Right vector as the cross product of world up and forward
+    public Vector3f getRight() {
+        updateOrientation();
+        return right;
+    }
+
+    private void updateOrientation() {
+        if (!orientationDirty) {
+            return;
+        }
         float cosPitch = (float) Math.cos(Math.toRadians(pitch));
         float sinPitch = (float) Math.sin(Math.toRadians(pitch));
         float cosYaw = (float) Math.cos(Math.toRadians(yaw));
         float sinYaw = (float) Math.sin(Math.toRadians(yaw));
-        return new Vector3f(
+        forward.set(
             cosYaw * cosPitch,  // x component
             sinPitch,           // y component
             sinYaw * cosPitch   // z component
         ).normalize();
-    }
-
-    // Compute the right vector as the cross product of world up and forward
-    public Vector3f getRight() {
-        Vector3f forward = getForward();
-        Vector3f worldUp = new Vector3f(0, 1, 0); // Assuming world up is +Y
-        Vector3f right = new Vector3f();
-        worldUp.cross(forward, right); // worldUp x forward gives right vector
-        return right.normalize();
+        WORLD_UP.cross(forward, right).normalize(); // worldUp x forward gives right vector
+        orientationDirty = false;
     }
 
     public Vector3f getPosition() {
@@ -88,15 +119,47 @@ public class Camera {
 
     public void setPosition(Vector3f position) {
         this.position = position;
+        viewDirty = true;
     }
 
     public Matrix4f getViewMatrix() {
-        Vector3f forward = getForward();
-        Vector3f target = new Vector3f(position).add(forward);
-        return new Matrix4f().lookAt(position, target, new Vector3f(0, 1, 0));
+        if (viewDirty) {
+            position.add(getForward(), target);
+            viewMatrix.setLookAt(position.x, position.y, position.z, target.x, target.y, target.z, WORLD_UP.x, WORLD_UP.y, WORLD_UP.z);
+            viewDirty = false;
+            projectionViewDirty = true;
+        }
+        return viewMatrix;
     }
 
     public Matrix4f getProjectionMatrix(int width, int height) {
-        return new Matrix4f().perspective((float) Math.toRadians(70.0f), (float) width / height, .1f, 1000f);
+        if (width != projectionWidth || height != projectionHeight) {
+            projectionMatrix.setPerspective((float) Math.toRadians(70.0f), (float) width / height, .1f, 1000f);
+            projectionWidth = width;
+            projectionHeight = height;
+            projectionViewDirty = true;
+        }
+        return projectionMatrix;
+    }
+
+    public Matrix4f getProjectionViewMatrix(int width, int height) {
+        updateProjectionView(width, height);
+        return projectionViewMatrix;
+    }
+
+    // Frustum of the current view, re-extracted only when the view or projection changed
+    public Frustum getFrustum(int width, int height) {
+        updateProjectionView(width, height);
+        return frustum;
+    }
+
+    private void updateProjectionView(int width, int height) {
+        getProjectionMatrix(width, height);
+        getViewMatrix();
+        if (projectionViewDirty) {
+            projectionMatrix.mul(viewMatrix, projectionViewMatrix);
+            frustum.extractPlanes(projectionViewMatrix);
+            projectionViewDirty = false;
+        }
     }
 }
@@ -6,6 +6,7 @@ import org.joml.Vector4f;
 
 public class Frustum {
     private final Vector4f[] planes = new Vector4f[6];
+    private final float[] m = new float[16];
 
     public static final int PLANE_LEFT = 0;
     public static final int PLANE_RIGHT = 1;
@@ -21,7 +22,6 @@ public class Frustum {
     }
 
     public void extractPlanes(Matrix4f projectionViewMatrix) {
-        float[] m = new float[16];
         projectionViewMatrix.get(m);
         
         // Left plane
@@ -111,13 +111,12 @@ public class Frustum {
             Vector4f plane = planes[i];
             
             // Find the "positive vertex" - the corner of the AABB that's furthest along the plane normal
-            Vector3f positiveVertex = new Vector3f();
-            positiveVertex.x = (plane.x >= 0) ? max.x : min.x;
-            positiveVertex.y = (plane.y >= 0) ? max.y : min.y;
-            positiveVertex.z = (plane.z >= 0) ? max.z : min.z;
+            float positiveX = (plane.x >= 0) ? max.x : min.x;
+            float positiveY = (plane.y >= 0) ? max.y : min.y;
+            float positiveZ = (plane.z >= 0) ? max.z : min.z;
             
             // If the positive vertex is behind the plane, the entire AABB is outside
-            if (getDistanceToPlane(plane, positiveVertex) < 0) {
+            if (plane.x * positiveX + plane.y * positiveY + plane.z * positiveZ + plane.w < 0) {
                 return false;
             }
         }
@@ -0,0 +1,243 @@
+package minecraft_clone.render;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+import org.joml.Matrix4f;
+
+// Low-resolution CPU depth buffer for software occlusion culling, with no GPU queries involved.
+// Solid boxes known to be fully opaque are rasterized into it as occluders, then boxes of what would be drawn
+// are tested against it: a box is hidden when every pixel it covers already holds a nearer occluder.
+// Depth is stored as 1/w (0 = nothing drawn, larger = nearer), which interpolates linearly across the screen.
+// Triangles are kept in parallel arrays and rasterized in horizontal bands, shared with the common ForkJoinPool.
+// Usage per frame: begin(), addOccluderBox() for each occluder, rasterize(), then isBoxVisible() per candidate.
+public class OcclusionBuffer {
+    public static final int WIDTH = 256;
+    public static final int HEIGHT = 128;
+    private static final int BANDS = 8; // Rows are split into this many tasks
+    private static final float NEAR_W = 0.1f; // Boxes reaching closer than this to the camera are not projected
+    private static final float DEPTH_EPSILON = 1.0e-4f;
+
+    // Two triangles per box face, as corner indices (corner bit 0: x, bit 1: y, bit 2: z set to the max side)
+    private static final int[] BOX_TRIANGLES = {
+        0, 2, 3, 0, 3, 1, // -z
+        4, 5, 7, 4, 7, 6, // +z
+        0, 4, 6, 0, 6, 2, // -x
+        1, 3, 7, 1, 7, 5, // +x
+        0, 1, 5, 0, 5, 4, // -y
+        2, 6, 7, 2, 7, 3, // +y
+    };
+
+    private final float[] depth = new float[WIDTH * HEIGHT];
+    private final float[] m = new float[16];
+    private final float[] cornerX = new float[8];
+    private final float[] cornerY = new float[8];
+    private final float[] cornerDepth = new float[8];
+
+    // Screen-space triangles queued since begin(): vertex positions in pixels and 1/w per vertex
+    private float[] x0 = new float[256], y0 = new float[256], z0 = new float[256];
+    private float[] x1 = new float[256], y1 = new float[256], z1 = new float[256];
+    private float[] x2 = new float[256], y2 = new float[256], z2 = new float[256];
+    private int triangleCount;
+    private final BandTask[] bandTasks = new BandTask[BANDS]; // Reused every frame
+
+    public OcclusionBuffer() {
+        for (int band = 0; band < BANDS; band++) {
+            bandTasks[band] = new BandTask(band);
+        }
+    }
+
+    public void begin(Matrix4f projectionViewMatrix) {
+        projectionViewMatrix.get(m);
+        Arrays.fill(depth, 0.0f);
+        triangleCount = 0;
+    }
+
+    // Queues the faces of a box that is solid all the way through. Boxes too close to the camera are skipped.
+    public void addOccluderBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        if (!projectCorners(minX, minY, minZ, maxX, maxY, maxZ)) {
+            return;
+        }
+        if (triangleCount + BOX_TRIANGLES.length / 3 > x0.length) {
+            grow(Math.max(x0.length * 2, triangleCount + BOX_TRIANGLES.length / 3));
+        }
+        for (int i = 0; i < BOX_TRIANGLES.length; i += 3) {
+            int a = BOX_TRIANGLES[i];
+            int b = BOX_TRIANGLES[i + 1];
+            int c = BOX_TRIANGLES[i + 2];
+            int t = triangleCount++;
+            x0[t] = cornerX[a];
+            y0[t] = cornerY[a];
+            z0[t] = cornerDepth[a];
+            x1[t] = cornerX[b];
+            y1[t] = cornerY[b];
+            z1[t] = cornerDepth[b];
+            x2[t] = cornerX[c];
+            y2[t] = cornerY[c];
+            z2[t] = cornerDepth[c];
+        }
+    }
+
+    public void rasterize() {
+        if (triangleCount == 0) {
+            return;
+        }
+        // Every band but the first goes to the common pool and the first is done here. Bands no worker has taken yet
+        // are taken back, newest first. Stolen ones are polled rather than joined while running, because a blocking
+        // join allocates a wait node.
+        for (int band = 1; band < BANDS; band++) {
+            bandTasks[band].reinitialize();
+            bandTasks[band].fork();
+        }
+        rasterizeBand(0);
+        for (int band = BANDS - 1; band >= 1; band--) {
+            BandTask task = bandTasks[band];
+            if (task.tryUnfork()) {
+                task.invoke();
+                continue;
+            }
+            while (!task.isDone()) {
+                Thread.yield();
+            }
+            task.join(); // Done by now; rethrows anything the band threw
+        }
+    }
+
+    // False only if the whole box is behind occluders already rasterized this frame
+    public boolean isBoxVisible(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        if (triangleCount == 0 || !projectCorners(minX, minY, minZ, maxX, maxY, maxZ)) {
+            return true;
+        }
+        float left = Float.POSITIVE_INFINITY;
+        float right = Float.NEGATIVE_INFINITY;
+        float bottom = Float.POSITIVE_INFINITY;
+        float top = Float.NEGATIVE_INFINITY;
+        float nearest = 0.0f;
+        for (int i = 0; i < 8; i++) {
+            left = Math.min(left, cornerX[i]);
+            right = Math.max(right, cornerX[i]);
+            bottom = Math.min(bottom, cornerY[i]);
+            top = Math.max(top, cornerY[i]);
+            nearest = Math.max(nearest, cornerDepth[i]);
+        }
+        // Grow the rectangle by a pixel so occluders that only cover a pixel's center do not hide the box
+        int startX = Math.max(0, (int) Math.floor(left) - 1);
+        int endX = Math.min(WIDTH - 1, (int) Math.ceil(right) + 1);
+        int startY = Math.max(0, (int) Math.floor(bottom) - 1);
+        int endY = Math.min(HEIGHT - 1, (int) Math.ceil(top) + 1);
+        if (startX > endX || startY > endY) {
+            return true; // Off screen, leave it to the frustum test
+        }
+        float threshold = nearest * (1.0f + DEPTH_EPSILON);
+        for (int y = startY; y <= endY; y++) {
+            int row = y * WIDTH;
+            for (int x = startX; x <= endX; x++) {
+                if (depth[row + x] <= threshold) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Projects the box corners into pixels; false if any corner is too close to or behind the camera
+    private boolean projectCorners(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int i = 0; i < 8; i++) {
+            float x = (i & 1) == 0 ? minX : maxX;
+            float y = (i & 2) == 0 ? minY : maxY;
+            float z = (i & 4) == 0 ? minZ : maxZ;
+            float clipX = m[0] * x + m[4] * y + m[8] * z + m[12];
+            float clipY = m[1] * x + m[5] * y + m[9] * z + m[13];
+            float clipW = m[3] * x + m[7] * y + m[11] * z + m[15];
+            if (clipW < NEAR_W) {
+                return false;
+            }
+            float inverseW = 1.0f / clipW;
+            cornerX[i] = (clipX * inverseW * 0.5f + 0.5f) * WIDTH;
+            cornerY[i] = (clipY * inverseW * 0.5f + 0.5f) * HEIGHT;
+            cornerDepth[i] = inverseW;
+        }
+        return true;
+    }
+
+    // Rasterizes every queued triangle into rows [rowStart, rowEnd), keeping the nearest depth per pixel
+    private void rasterizeRows(int rowStart, int rowEnd) {
+        for (int t = 0; t < triangleCount; t++) {
+            float ax = x0[t], ay = y0[t], az = z0[t];
+            float bx = x1[t], by = y1[t], bz = z1[t];
+            float cx = x2[t], cy = y2[t], cz = z2[t];
+            float area = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+            if (area == 0.0f) {
+                continue;
+            }
+            if (area < 0.0f) {
+                // Make the winding counter-clockwise so all edge functions are positive inside
+                float swapX = bx, swapY = by, swapZ = bz;
+                bx = cx;
+                by = cy;
+                bz = cz;
+                cx = swapX;
+                cy = swapY;
+                cz = swapZ;
+                area = -area;
+            }
+
+            int minX = Math.max(0, (int) Math.floor(Math.min(ax, Math.min(bx, cx))));
+            int maxX = Math.min(WIDTH - 1, (int) Math.ceil(Math.max(ax, Math.max(bx, cx))));
+            int minY = Math.max(rowStart, (int) Math.floor(Math.min(ay, Math.min(by, cy))));
+            int maxY = Math.min(rowEnd - 1, (int) Math.ceil(Math.max(ay, Math.max(by, cy))));
+            if (minX > maxX || minY > maxY) {
+                continue;
+            }
+
+            float inverseArea = 1.0f / area;
+            for (int y = minY; y <= maxY; y++) {
+                float py = y + 0.5f;
+                int row = y * WIDTH;
+                for (int x = minX; x <= maxX; x++) {
+                    float px = x + 0.5f;
+                    // Edge functions: each is the weight of the opposite vertex, scaled by the area
+                    float weightA = (cx - bx) * (py - by) - (cy - by) * (px - bx);
+                    float weightB = (ax - cx) * (py - cy) - (ay - cy) * (px - cx);
+                    float weightC = area - weightA - weightB;
+                    if (weightA < 0.0f || weightB < 0.0f || weightC < 0.0f) {
+                        continue;
+                    }
+                    float z = (weightA * az + weightB * bz + weightC * cz) * inverseArea;
+                    if (z > depth[row + x]) {
+                        depth[row + x] = z;
+                    }
+                }
+            }
+        }
+    }
+
+    private void rasterizeBand(int band) {
+        rasterizeRows(band * HEIGHT / BANDS, (band + 1) * HEIGHT / BANDS);
+    }
+
+    private final class BandTask extends RecursiveAction {
+        private final int band;
+
+        BandTask(int band) {
+            this.band = band;
+        }
+
+        @Override
+        protected void compute() {
+            rasterizeBand(band);
+        }
+    }
+
+    private void grow(int capacity) {
+        x0 = Arrays.copyOf(x0, capacity);
+        y0 = Arrays.copyOf(y0, capacity);
+        z0 = Arrays.copyOf(z0, capacity);
+        x1 = Arrays.copyOf(x1, capacity);
+        y1 = Arrays.copyOf(y1, capacity);
+        z1 = Arrays.copyOf(z1, capacity);
+        x2 = Arrays.copyOf(x2, capacity);
+        y2 = Arrays.copyOf(y2, capacity);
+        z2 = Arrays.copyOf(z2, capacity);
+    }
+}
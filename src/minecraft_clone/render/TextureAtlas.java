@@ -1,12 +1,37 @@
 package minecraft_clone.render;
 
+import minecraft_clone.world.BlockRegistry;
+
 public class TextureAtlas {
     private final int tileCount;
     private final float tileSize;
+    // Lower-left UV of each block face's tile, indexed by BlockRegistry.faceIndex; same values as getUVCoords
+    private final float[] faceTileU;
+    private final float[] faceTileV;
 
     public TextureAtlas(int atlasSize, int tileSizePx) {
         this.tileCount = atlasSize / tileSizePx;
         this.tileSize = 1.0f / tileCount;
+
+        int faces = BlockRegistry.blockTypeCount() * CubeModel.FACE_COUNT;
+        this.faceTileU = new float[faces];
+        this.faceTileV = new float[faces];
+        for (int i = 0; i < faces; i++) {
+            faceTileU[i] = BlockRegistry.getFaceTileX(i) * tileSize;
+            faceTileV[i] = 1.0f - (BlockRegistry.getFaceTileY(i) + 1) * tileSize;
+        }
+    }
+
+    public float getTileSize() {
+        return tileSize;
+    }
+
+    public float getFaceTileU(int faceIndex) {
+        return faceTileU[faceIndex];
+    }
+
+    public float getFaceTileV(int faceIndex) {
+        return faceTileV[faceIndex];
     }
 
     // Returns UVs for a tile (e.g., tileX = 1, tileY = 3)
@@ -3,9 +3,20 @@ package minecraft_clone.world;
 import java.util.EnumMap;
 import java.util.Map;
 
+import minecraft_clone.render.CubeModel;
+
 public class BlockRegistry {
     private static final Map<BlockType, BlockProperties> registry = new EnumMap<>(BlockType.class);
 
+    // Flat tables compiled from the registry once all blocks are registered, indexed by BlockType ordinal.
+    // The mesher reads these instead of looking up BlockProperties per block and per neighbor.
+    private static final BlockType[] TYPES = BlockType.values();
+    private static final long[] SOLID = new long[(TYPES.length + 63) >>> 6];
+    private static final long[] TRANSPARENT = new long[SOLID.length];
+    private static final long[] OPAQUE = new long[SOLID.length]; // Registered and not transparent
+    private static final int[] FACE_TILE_X = new int[TYPES.length * CubeModel.FACE_COUNT]; // -1 when unregistered
+    private static final int[] FACE_TILE_Y = new int[FACE_TILE_X.length];
+
     static {
         register(BlockType.AIR,    new BlockProperties("Air", false, true,   new int[] {-1, -1}, new int[] {-1, -1}, new int[] {-1, -1}));
         register(BlockType.STONE,  new BlockProperties("Stone", true, false, new int[] {1, 0}, new int[] {1, 0}, new int[] {1, 0}));
@@ -121,13 +132,80 @@ public class BlockRegistry {
 //        register(BlockType.CAKE,   new BlockProperties("Clay", true, false,  new int[] {8, 4}, new int[] {8, 4}, new int[] {8, 4}));
 //        register(BlockType.REDSTONE_REPEATER_OFF,   new BlockProperties("Clay", true, false,  new int[] {8, 4}, new int[] {8, 4}, new int[] {8, 4}));
 //        register(BlockType.REDSTONE_REPEATER_ON,   new BlockProperties("Clay", true, false,  new int[] {8, 4}, new int[] {8, 4}, new int[] {8, 4}));
+
+        compileTables();
     }
 
     private static void register(BlockType type, BlockProperties props) {
         registry.put(type, props);
     }
 
+    private static void compileTables() {
+        for (BlockType type : TYPES) {
+            int ordinal = type.ordinal();
+            BlockProperties props = registry.get(type);
+            if (props == null) {
+                for (int face = 0; face < CubeModel.FACE_COUNT; face++) {
+                    FACE_TILE_X[faceIndex(ordinal, face)] = -1;
+                    FACE_TILE_Y[faceIndex(ordinal, face)] = -1;
+                }
+                continue;
+            }
+            if (props.isSolid) {
+                SOLID[ordinal >>> 6] |= 1L << ordinal;
+            }
+            if (props.isTransparent) {
+                TRANSPARENT[ordinal >>> 6] |= 1L << ordinal;
+            } else {
+                OPAQUE[ordinal >>> 6] |= 1L << ordinal;
+            }
+            setFaceTile(ordinal, CubeModel.FACE_FRONT, props.textureFront);
+            setFaceTile(ordinal, CubeModel.FACE_BACK, props.textureBack);
+            setFaceTile(ordinal, CubeModel.FACE_LEFT, props.textureLeft);
+            setFaceTile(ordinal, CubeModel.FACE_RIGHT, props.textureRight);
+            setFaceTile(ordinal, CubeModel.FACE_TOP, props.textureTop);
+            setFaceTile(ordinal, CubeModel.FACE_BOTTOM, props.textureBottom);
+        }
+    }
+
+    private static void setFaceTile(int ordinal, int face, int[] tile) {
+        FACE_TILE_X[faceIndex(ordinal, face)] = tile[0];
+        FACE_TILE_Y[faceIndex(ordinal, face)] = tile[1];
+    }
+
     public static BlockProperties get(BlockType type) {
         return registry.get(type);
     }
+
+    public static int blockTypeCount() {
+        return TYPES.length;
+    }
+
+    // Index into the per-face tables for a block ordinal and a CubeModel face
+    public static int faceIndex(int ordinal, int face) {
+        return ordinal * CubeModel.FACE_COUNT + face;
+    }
+
+    public static int getFaceTileX(int faceIndex) {
+        return FACE_TILE_X[faceIndex];
+    }
+
+    public static int getFaceTileY(int faceIndex) {
+        return FACE_TILE_Y[faceIndex];
+    }
+
+    public static boolean isSolid(BlockType type) {
+        int ordinal = type.ordinal();
+        return (SOLID[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    public static boolean isTransparent(BlockType type) {
+        int ordinal = type.ordinal();
+        return (TRANSPARENT[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    public static boolean isOpaque(BlockType type) {
+        int ordinal = type.ordinal();
+        return (OPAQUE[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
 }
@@ -0,0 +1,8 @@
+package minecraft_clone.world;
+
+public interface BlockStorage {
+    BlockType get(int x, int y, int z);
+    void set(int x, int y, int z, BlockType type);
+    boolean isEmpty();
+    void clear();
+}
@@ -1,234 +1,266 @@
 package minecraft_clone.world;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.joml.Vector3f;
 
-import minecraft_clone.engine.BaseLoader;
-import minecraft_clone.engine.RawModel;
+import minecraft_clone.engine.ChunkArena;
+import minecraft_clone.engine.MeshBuilder;
+import minecraft_clone.engine.MeshBuilderPool;
+import minecraft_clone.engine.VertexFormat;
 import minecraft_clone.render.CubeModel;
 import minecraft_clone.render.TextureAtlas;
 
 public class Chunk {
     public static final int CHUNK_SIZE = 16;
-    private BlockType[][][] blocks;
-    private RawModel opaqueModel;
-    private RawModel transparentModel;
+    static final float GRASS_TINT_R = 0.4863f;
+    static final float GRASS_TINT_G = 0.7412f;
+    static final float GRASS_TINT_B = 0.2706f;
+    // Each layer's mesh is built and uploaded in parts, so a neighbor arriving only rebuilds the faces that look into
+    // it: the interior part, then one border strip per neighbor direction holding that edge's outward faces
+    static final int INTERIOR_PART = 0;
+    public static final int MESH_PARTS = 5; // Border strip of direction d is part d + 1
+    static final int ALL_MESH_PARTS = (1 << MESH_PARTS) - 1; // As a bit mask of parts
+
+
+    // Builders travel with a ChunkMesh from the meshing thread to the upload and then come back here,
+    // so steady-state meshing allocates no buffers
+    private static final MeshBuilderPool MESH_BUILDERS = new MeshBuilderPool(64);
+
+    private BlockStorage blocks;
+    private final ChunkArena.Allocation[] opaqueMeshes = new ChunkArena.Allocation[MESH_PARTS]; // Null for empty parts
+    private final ChunkArena.Allocation[] transparentMeshes = new ChunkArena.Allocation[MESH_PARTS];
     private Vector3f position;
-    private BaseLoader loader;
+    private ChunkArena arena;
     private TextureAtlas atlas;
     private Chunk[] neighbors; // 0: +x, 1: -x, 2: +z, 3: -z
-    private PerlinNoise noise;
+    private MeshingMode meshingMode;
+    private final VertexFormat vertexFormat;
 
+    private volatile ChunkStatus status = ChunkStatus.EMPTY; // Advanced by the ChunkPipeline as blocks are generated
     private boolean meshGenerated = false;
-    private boolean needsMeshUpdate = false;
+    private final AtomicInteger dirtyParts = new AtomicInteger(); // Mesh parts to rebuild, bit per part
+    private volatile boolean meshQueued = false; // A mesh build for this chunk is in flight
+    private boolean disposed = false;
     private long lastAccessTime;
     private int chunkX, chunkZ;
-
-    public Chunk(Vector3f position, BaseLoader loader, TextureAtlas atlas, PerlinNoise noise) {
+    private int cullIndex = -1; // Slot in the ChunkCuller's arrays, -1 when not tracked
+    // Face-to-face visibility through this chunk, updated with each mesh. Until then nothing is assumed to block the view.
+    private long visibility = ChunkVisibility.ALL_CONNECTED;
+    private ChunkOccluder occluder = ChunkOccluder.NONE;
+    private int frustumFrame; // Last ChunkOcclusionCuller frame this chunk was inside the frustum
+    private int reachedFrame; // Last ChunkOcclusionCuller frame the walk reached this chunk
+
+    // Starts out EMPTY; blocks are filled in stage by stage by the ChunkPipeline
+    public Chunk(Vector3f position, ChunkArena arena, TextureAtlas atlas, MeshingMode meshingMode) {
         this.position = position;
-        this.loader = loader;
+        this.arena = arena;
         this.atlas = atlas;
-        this.blocks = new BlockType[CHUNK_SIZE][CHUNK_SIZE][CHUNK_SIZE];
+        this.blocks = new PalettedBlockStorage();
         this.neighbors = new Chunk[4];
-        this.noise = noise;
+        this.meshingMode = meshingMode;
+        this.vertexFormat = arena.getFormat();
         this.lastAccessTime = System.currentTimeMillis();
         this.chunkX = (int) (position.x / CHUNK_SIZE);
         this.chunkZ = (int) (position.z / CHUNK_SIZE);
-        generateTerrain();
     }
 
+    // Only this side's border strip looks into the neighbor, so only it is rebuilt when the neighbor changes
     public void setNeighbor(int direction, Chunk neighbor) {
         Chunk oldNeighbor = neighbors[direction];
         neighbors[direction] = neighbor;
-        
-        // If neighbor changed, we might need mesh update
         if (oldNeighbor != neighbor) {
-            needsMeshUpdate = true;
-            // Also notify the neighbor that it might need an update
-            if (neighbor != null) {
-                neighbor.markForMeshUpdate();
-            }
+            dirtyParts.accumulateAndGet(1 << borderPart(direction), (a, b) -> a | b);
         }
     }
 
     public void markForMeshUpdate() {
-        needsMeshUpdate = true;
+        dirtyParts.set(ALL_MESH_PARTS);
     }
 
     public boolean needsMeshUpdate() {
-        return needsMeshUpdate;
-    }
-
-    private void generateTerrain() {
-        for (int x = 0; x < CHUNK_SIZE; x++) {
-            for (int z = 0; z < CHUNK_SIZE; z++) {
-                // Calculate world coordinates
-                float worldX = position.x + x;
-                float worldZ = position.z + z;
-                
-                // Generate height using multiple octaves of Perlin noise for more realistic terrain
-                float height = 0;
-                float amplitude = 1;
-                float frequency = 0.01f;
-                
-                // Multiple octaves for more detailed terrain
-                for (int i = 0; i < 4; i++) {
-                    height += noise.noise(worldX * frequency, worldZ * frequency) * amplitude;
-                    amplitude *= 0.5f;
-                    frequency *= 2.0f;
-                }
-                
-                // Scale height to fit within chunk (0 to CHUNK_SIZE)
-                int terrainHeight = (int) ((height + 1) * 0.3f * CHUNK_SIZE) + CHUNK_SIZE / 4;
-                terrainHeight = Math.max(1, Math.min(CHUNK_SIZE - 1, terrainHeight));
-
-                for (int y = 0; y < CHUNK_SIZE; y++) {
-                    if (y < terrainHeight - 3) {
-                        blocks[x][y][z] = BlockType.STONE;
-                    } else if (y < terrainHeight - 1) {
-                        blocks[x][y][z] = BlockType.DIRT;
-                    } else if (y == terrainHeight - 1) {
-                        // Occasionally place glass blocks for testing transparency
-                        if (noise.noise(worldX * 0.1f, worldZ * 0.1f) > 0.7f) {
-                            blocks[x][y][z] = BlockType.GLASS;
-                        } else {
-                            blocks[x][y][z] = BlockType.GRASS;
-                        }
-                    } else {
-                        blocks[x][y][z] = null; // Air
-                    }
-                }
-            }
+        return dirtyParts.get() != 0;
+    }
+
+    public void setMeshingMode(MeshingMode meshingMode) {
+        if (this.meshingMode != meshingMode) {
+            this.meshingMode = meshingMode;
+            markForMeshUpdate();
         }
     }
 
+    // Builds and uploads the parts that need it immediately; must run on the GL thread
     public void generateMesh() {
-        lastAccessTime = System.currentTimeMillis();
+        ChunkMesh mesh = buildMesh(dirtyParts.getAndSet(0));
+        applyMesh(mesh);
+        mesh.release();
+    }
 
-        List<Float> opaqueVerticesList = new ArrayList<>();
-        List<Integer> opaqueIndicesList = new ArrayList<>();
-        List<Float> transparentVerticesList = new ArrayList<>();
-        List<Integer> transparentIndicesList = new ArrayList<>();
+    // Builds the given parts (a bit mask) on the calling thread without touching GL, so it can run on a worker.
+    // Both layers are built part after part into one builder each; the mesh records where each part starts.
+    public ChunkMesh buildMesh(int parts) {
+        ChunkMesh mesh = ChunkMesh.acquire(this, MESH_BUILDERS, vertexFormat, parts);
+        MeshBuilder opaqueBuilder = mesh.getOpaqueBuilder();
+        MeshBuilder transparentBuilder = mesh.getTransparentBuilder();
+        int[] opaqueStarts = mesh.getOpaqueStarts();
+        int[] transparentStarts = mesh.getTransparentStarts();
+
+        for (int part = 0; part < MESH_PARTS; part++) {
+            opaqueStarts[part] = opaqueBuilder.getQuadCount();
+            transparentStarts[part] = transparentBuilder.getQuadCount();
+            if ((parts & (1 << part)) == 0) {
+                continue;
+            }
+            if (meshingMode == MeshingMode.GREEDY) {
+                GreedyMesher.forCurrentThread().mesh(this, atlas, part, opaqueBuilder, transparentBuilder);
+            } else {
+                addBlockFaces(part, opaqueBuilder, transparentBuilder);
+            }
+        }
+        opaqueStarts[MESH_PARTS] = opaqueBuilder.getQuadCount();
+        transparentStarts[MESH_PARTS] = transparentBuilder.getQuadCount();
+        opaqueBuilder.finish();
+        transparentBuilder.finish();
+
+        // Visibility and occluders only depend on this chunk's blocks, so a border rebuild keeps the old ones
+        if ((parts & (1 << INTERIOR_PART)) != 0) {
+            mesh.setVisibility(ChunkVisibility.forCurrentThread().compute(this));
+            mesh.getOccluder().build(this);
+        }
+        return mesh;
+    }
 
-        for (int x = 0; x < CHUNK_SIZE; x++) {
+    // Face by face meshing for MeshingMode.NAIVE; a border part only walks the slab of blocks along its edge
+    private void addBlockFaces(int part, MeshBuilder opaqueBuilder, MeshBuilder transparentBuilder) {
+        int minX = 0, maxX = CHUNK_SIZE - 1;
+        int minZ = 0, maxZ = CHUNK_SIZE - 1;
+        if (part != INTERIOR_PART) {
+            int direction = part - 1;
+            int edge = direction % 2 == 0 ? CHUNK_SIZE - 1 : 0; // Even directions are the positive sides
+            if (direction < 2) {
+                minX = maxX = edge;
+            } else {
+                minZ = maxZ = edge;
+            }
+        }
+        for (int x = minX; x <= maxX; x++) {
             for (int y = 0; y < CHUNK_SIZE; y++) {
-                for (int z = 0; z < CHUNK_SIZE; z++) {
-                    BlockType block = blocks[x][y][z];
+                for (int z = minZ; z <= maxZ; z++) {
+                    BlockType block = blocks.get(x, y, z);
                     if (block != null && block != BlockType.AIR) {
-                        BlockProperties props = BlockRegistry.get(block);
-                        if (props.isTransparent && block!= BlockType.AIR) {
-                            addVisibleFaces(x, y, z, block, transparentVerticesList, transparentIndicesList);
+                        if (BlockRegistry.isTransparent(block)) {
+                            addVisibleFaces(x, y, z, block, part, transparentBuilder);
                         } else {
-                            addVisibleFaces(x, y, z, block, opaqueVerticesList, opaqueIndicesList);
+                            addVisibleFaces(x, y, z, block, part, opaqueBuilder);
                         }
                     }
                 }
             }
         }
-        cleanupModels();
+    }
 
-        // Create opaque model
-        if (!opaqueVerticesList.isEmpty()) {
-            float[] opaqueVertices = new float[opaqueVerticesList.size()];
-            for (int i = 0; i < opaqueVerticesList.size(); i++) {
-                opaqueVertices[i] = opaqueVerticesList.get(i);
-            }
-            int[] opaqueIndices = new int[opaqueIndicesList.size()];
-            for (int i = 0; i < opaqueIndicesList.size(); i++) {
-                opaqueIndices[i] = opaqueIndicesList.get(i);
-            }
-            opaqueModel = loader.loadToVertexArrayObject(opaqueVertices, opaqueIndices, 9);
-            opaqueModel.setCullBackFaces(true);
+    // Swaps the built parts in for the current ones; must run on the GL thread. The caller releases the mesh.
+    public void applyMesh(ChunkMesh mesh) {
+        meshQueued = false;
+        if (disposed) {
+            return;
         }
+        lastAccessTime = System.currentTimeMillis();
 
-        // Create transparent model
-        if (!transparentVerticesList.isEmpty()) {
-            float[] transparentVertices = new float[transparentVerticesList.size()];
-            for (int i = 0; i < transparentVerticesList.size(); i++) {
-                transparentVertices[i] = transparentVerticesList.get(i);
-            }
-            int[] transparentIndices = new int[transparentIndicesList.size()];
-            for (int i = 0; i < transparentIndicesList.size(); i++) {
-                transparentIndices[i] = transparentIndicesList.get(i);
+        // Reuse the existing arena space when remeshing
+        for (int part = 0; part < MESH_PARTS; part++) {
+            if ((mesh.getParts() & (1 << part)) != 0) {
+                opaqueMeshes[part] = uploadMesh(opaqueMeshes[part], mesh.getOpaqueBuilder(), mesh.getOpaqueStarts(), part);
+                transparentMeshes[part] = uploadMesh(transparentMeshes[part], mesh.getTransparentBuilder(),
+                        mesh.getTransparentStarts(), part);
             }
-            transparentModel = loader.loadToVertexArrayObject(transparentVertices, transparentIndices, 9);
-            transparentModel.setCullBackFaces(false);
+        }
+        if ((mesh.getParts() & (1 << INTERIOR_PART)) != 0) {
+            visibility = mesh.getVisibility();
+            occluder = mesh.swapOccluder(occluder);
         }
 
         meshGenerated = true;
-        needsMeshUpdate = false;
     }
 
-    private void addVisibleFaces(int x, int y, int z, BlockType type, List<Float> vertices, List<Integer> indices) {
-        float[] cubeVertices = CubeModel.getCube(atlas, type);
-        BlockProperties props = BlockRegistry.get(type);
-        
+    // Called when a mesh build is handed to a worker; returns the parts it must build. Changes after this point
+    // mark the chunk dirty again.
+    public int markMeshQueued() {
+        meshQueued = true;
+        return dirtyParts.getAndSet(0);
+    }
+
+    // Called when a mesh build of the given parts failed or was dropped, so they get built on a later update
+    public void cancelMeshQueued(int parts) {
+        dirtyParts.accumulateAndGet(parts, (a, b) -> a | b);
+        meshQueued = false;
+    }
+
+    public boolean isMeshQueued() {
+        return meshQueued;
+    }
+
+    // Only the faces that belong to the given mesh part
+    private void addVisibleFaces(int x, int y, int z, BlockType type, int part, MeshBuilder builder) {
         // For transparent blocks, we need to render faces that are adjacent to air or other transparent blocks
         // For opaque blocks, we only render faces adjacent to air or transparent blocks
         
-        if (shouldRenderFace(x, y + 1, z, type)) {
-            float r = (type == BlockType.GRASS) ? 0.4863f : 1.0f;
-            float g = (type == BlockType.GRASS) ? 0.7412f : 1.0f;
-            float b = (type == BlockType.GRASS) ? 0.2706f : 1.0f;
-            float alpha = props.isTransparent ? 0.8f : 1.0f;
-            addFace(vertices, indices, cubeVertices, 16, 20, x, y, z, r, g, b, alpha); // Top
+        float alpha = BlockRegistry.isTransparent(type) ? 0.8f : 1.0f;
+        if (part == INTERIOR_PART && shouldRenderFace(x, y + 1, z, type)) {
+            float r = isTinted(type, CubeModel.FACE_TOP) ? GRASS_TINT_R : 1.0f;
+            float g = isTinted(type, CubeModel.FACE_TOP) ? GRASS_TINT_G : 1.0f;
+            float b = isTinted(type, CubeModel.FACE_TOP) ? GRASS_TINT_B : 1.0f;
+            addFace(builder, type, CubeModel.FACE_TOP, x, y, z, r, g, b, alpha);
         }
-        if (shouldRenderFace(x, y - 1, z, type)) {
-            float alpha = props.isTransparent ? 0.8f : 1.0f;
-            addFace(vertices, indices, cubeVertices, 20, 24, x, y, z, 1.0f, 1.0f, 1.0f, alpha); // Bottom
+        if (part == INTERIOR_PART && shouldRenderFace(x, y - 1, z, type)) {
+            addFace(builder, type, CubeModel.FACE_BOTTOM, x, y, z, 1.0f, 1.0f, 1.0f, alpha);
         }
-        if (shouldRenderFace(x, y, z + 1, type)) {
-            float alpha = props.isTransparent ? 0.8f : 1.0f;
-            addFace(vertices, indices, cubeVertices, 0, 4, x, y, z, 1.0f, 1.0f, 1.0f, alpha);   // Front
+        if (meshPart(CubeModel.FACE_FRONT, z) == part && shouldRenderFace(x, y, z + 1, type)) {
+            addFace(builder, type, CubeModel.FACE_FRONT, x, y, z, 1.0f, 1.0f, 1.0f, alpha);
         }
-        if (shouldRenderFace(x, y, z - 1, type)) {
-            float alpha = props.isTransparent ? 0.8f : 1.0f;
-            addFace(vertices, indices, cubeVertices, 4, 8, x, y, z, 1.0f, 1.0f, 1.0f, alpha);   // Back
+        if (meshPart(CubeModel.FACE_BACK, z) == part && shouldRenderFace(x, y, z - 1, type)) {
+            addFace(builder, type, CubeModel.FACE_BACK, x, y, z, 1.0f, 1.0f, 1.0f, alpha);
         }
-        if (shouldRenderFace(x - 1, y, z, type)) {
-            float alpha = props.isTransparent ? 0.8f : 1.0f;
-            addFace(vertices, indices, cubeVertices, 8, 12, x, y, z, 1.0f, 1.0f, 1.0f, alpha);  // Left
+        if (meshPart(CubeModel.FACE_LEFT, x) == part && shouldRenderFace(x - 1, y, z, type)) {
+            addFace(builder, type, CubeModel.FACE_LEFT, x, y, z, 1.0f, 1.0f, 1.0f, alpha);
         }
-        if (shouldRenderFace(x + 1, y, z, type)) {
-            float alpha = props.isTransparent ? 0.8f : 1.0f;
-            addFace(vertices, indices, cubeVertices, 12, 16, x, y, z, 1.0f, 1.0f, 1.0f, alpha); // Right
+        if (meshPart(CubeModel.FACE_RIGHT, x) == part && shouldRenderFace(x + 1, y, z, type)) {
+            addFace(builder, type, CubeModel.FACE_RIGHT, x, y, z, 1.0f, 1.0f, 1.0f, alpha);
         }
     }
 
-    private boolean shouldRenderFace(int x, int y, int z, BlockType currentType) {
-        BlockProperties currentProps = BlockRegistry.get(currentType);
-        
+    // Part a face goes in, given its position along the face's normal axis: the border strip of a side for faces on
+    // that edge looking out of the chunk, the interior for every other face
+    static int meshPart(int face, int slice) {
+        switch (face) {
+            case CubeModel.FACE_RIGHT:
+                return slice == CHUNK_SIZE - 1 ? borderPart(0) : INTERIOR_PART;
+            case CubeModel.FACE_LEFT:
+                return slice == 0 ? borderPart(1) : INTERIOR_PART;
+            case CubeModel.FACE_FRONT:
+                return slice == CHUNK_SIZE - 1 ? borderPart(2) : INTERIOR_PART;
+            case CubeModel.FACE_BACK:
+                return slice == 0 ? borderPart(3) : INTERIOR_PART;
+            default:
+                return INTERIOR_PART; // Chunks have no neighbors above or below
+        }
+    }
+
+    // Neighbor directions: 0 (+x), 1 (-x), 2 (+z), 3 (-z)
+    static int borderPart(int direction) {
+        return direction + 1;
+    }
+
+    // Grass tops are tinted; every other face uses the texture color as-is
+    static boolean isTinted(BlockType type, int face) {
+        return type == BlockType.GRASS && face == CubeModel.FACE_TOP;
+    }
+
+    boolean shouldRenderFace(int x, int y, int z, BlockType currentType) {
         // Check if the position is within the current chunk
         if (x >= 0 && x < CHUNK_SIZE && y >= 0 && y < CHUNK_SIZE && z >= 0 && z < CHUNK_SIZE) {
-            BlockType adjacent = blocks[x][y][z];
-            if (adjacent == null) {
-                return true; // Adjacent to air, always render
-            }
-            
-            BlockProperties adjacentProps = BlockRegistry.get(adjacent);
-            
-            // If current block is opaque, only render face if adjacent is air or transparent
-            if (!currentProps.isTransparent) {
-                return adjacent == BlockType.AIR || adjacentProps.isTransparent;
-            }
-            
-            // For transparent blocks, be more selective to reduce z-fighting
-            if (currentProps.isTransparent) {
-                // Don't render transparent faces adjacent to the same transparent block type
-                if (adjacent == currentType) {
-                    return false;
-                }
-                // Don't render transparent faces directly adjacent to opaque blocks
-                // (this reduces z-fighting but might affect visual quality)
-                if (!adjacentProps.isTransparent && adjacent != BlockType.AIR) {
-                    return false; // Comment this line if you want transparent faces against solid blocks
-                }
-                // Render if adjacent to air or different block types
-                return adjacent == BlockType.AIR || adjacent != currentType;
-            }
-            
+            return isFaceExposed(currentType, blocks.get(x, y, z));
         } else {
             // Handle chunk boundaries (similar logic as before)
             int chunkX = (x < 0) ? -1 : (x >= CHUNK_SIZE ? 1 : 0);
@@ -239,31 +271,24 @@ public class Chunk {
 
             Chunk neighbor = getNeighbor(chunkX, chunkZ);
             if (neighbor != null) {
-                BlockType adjacent = neighbor.getBlock(blockX, blockY, blockZ);
-                if (adjacent == null) {
-                    return true;
-                }
-                
-                BlockProperties adjacentProps = BlockRegistry.get(adjacent);
-                
-                if (!currentProps.isTransparent) {
-                    return adjacent == BlockType.AIR || adjacentProps.isTransparent;
-                }
-                
-                // Same transparent block logic for chunk boundaries
-                if (adjacent == currentType) {
-                    return false;
-                }
-                if (!adjacentProps.isTransparent && adjacent != BlockType.AIR) {
-                    return false; // Reduce z-fighting
-                }
-                return adjacent == BlockType.AIR || adjacent != currentType;
+                return isFaceExposed(currentType, neighbor.getBlock(blockX, blockY, blockZ));
             } else {
                 return true;
             }
         }
-        
-        return false;
+    }
+
+    // Air counts as transparent in the registry, so both cases reduce to a transparency check:
+    // opaque blocks show faces against air or transparent blocks, and transparent blocks only against
+    // air or a different transparent block (not against opaque blocks, which reduces z-fighting)
+    private static boolean isFaceExposed(BlockType currentType, BlockType adjacent) {
+        if (adjacent == null) {
+            return true; // Adjacent to air, always render
+        }
+        if (BlockRegistry.isTransparent(currentType) && adjacent == currentType) {
+            return false;
+        }
+        return BlockRegistry.isTransparent(adjacent);
     }
 
     private Chunk getNeighbor(int chunkX, int chunkZ) {
@@ -274,61 +299,143 @@ public class Chunk {
         return null; // No diagonal neighbors for simplicity
     }
 
+    public ChunkStatus getStatus() {
+        return status;
+    }
+
+    void setStatus(ChunkStatus status) {
+        this.status = status;
+    }
+
+    // For generation stages, which write blocks directly
+    BlockStorage getBlockStorage() {
+        return blocks;
+    }
+
+    // Block at local coordinates inside this chunk; null for air
+    BlockType getLocalBlock(int x, int y, int z) {
+        return blocks.get(x, y, z);
+    }
+
+    // One above the highest non-air block in the column, 0 if the column is empty
+    public int getSurfaceHeight(int localX, int localZ) {
+        for (int y = CHUNK_SIZE - 1; y >= 0; y--) {
+            BlockType type = blocks.get(localX, y, localZ);
+            if (type != null && type != BlockType.AIR) {
+                return y + 1;
+            }
+        }
+        return 0;
+    }
+
     private BlockType getBlock(int x, int y, int z) {
         if (y < 0 || y >= CHUNK_SIZE) return null; // Out of vertical bounds
-        return blocks[x][y][z];
+        return blocks.get(x, y, z);
     }
 
-    private void addFace(List<Float> vertices, List<Integer> indices, float[] cubeVertices, int vertexStart, int vertexEnd, int x, int y, int z, float r, float g, float b, float alpha) {
-        int startIndex = vertices.size() / 9; // Changed to 9 floats per vertex (added alpha)
+    private void addFace(MeshBuilder builder, BlockType type, int face, int x, int y, int z, float r, float g, float b, float alpha) {
+        int faceIndex = BlockRegistry.faceIndex(type.ordinal(), face);
+        float tileU = atlas.getFaceTileU(faceIndex);
+        float tileV = atlas.getFaceTileV(faceIndex);
         // Add the 4 vertices for this face
-        for (int i = vertexStart; i < vertexEnd; i++) {
-            float posX = cubeVertices[i * 5] + x;
-            float posY = cubeVertices[i * 5 + 1] + y;
-            float posZ = cubeVertices[i * 5 + 2] + z;
-
-            vertices.add(posX);                         // x position
-            vertices.add(posY);                         // y position
-            vertices.add(posZ);                         // z position
-            vertices.add(cubeVertices[i * 5 + 3]);      // u coordinate
-            vertices.add(cubeVertices[i * 5 + 4]);      // v coordinate
-            vertices.add(r);                            // red
-            vertices.add(g);                            // green
-            vertices.add(b);                            // blue
-            vertices.add(alpha);                        // alpha
+        builder.beginQuad();
+        for (int i = face * CubeModel.VERTICES_PER_FACE; i < (face + 1) * CubeModel.VERTICES_PER_FACE; i++) {
+            float posX = CubeModel.FACE_CORNERS[i * 3] + x;
+            float posY = CubeModel.FACE_CORNERS[i * 3 + 1] + y;
+            float posZ = CubeModel.FACE_CORNERS[i * 3 + 2] + z;
+            float u = CubeModel.FACE_CORNER_UVS[i * 2];
+            float v = CubeModel.FACE_CORNER_UVS[i * 2 + 1];
+            putVertex(builder, posX, posY, posZ, u, v, r, g, b, alpha, tileU, tileV);
         }
-        // Add indices for two triangles: 0,1,2 and 2,3,0
-        indices.add(startIndex + 0);
-        indices.add(startIndex + 1);
-        indices.add(startIndex + 2);
-        indices.add(startIndex + 2);
-        indices.add(startIndex + 3);
-        indices.add(startIndex + 0);
-    }
-
-    private void cleanupModels() {
-        if (opaqueModel != null) {
-            loader.deleteVertexBufferObjects(opaqueModel.getVertexBufferObjectIDs());
-            loader.deleteVertexArrayObject(opaqueModel.getVertexArrayObjectID());
-            opaqueModel = null;
+        builder.endQuad();
+    }
+
+    // u and v are in tile units; the fragment shader repeats the tile at (tileU, tileV) across them
+    void putVertex(MeshBuilder builder, float x, float y, float z, float u, float v, float r, float g, float b, float alpha, float tileU, float tileV) {
+        if (builder.getFormat() == VertexFormat.PACKED) {
+            putPackedVertex(builder, x, y, z, u, v, r, g, b, alpha, tileU, tileV);
+            return;
         }
-        if (transparentModel != null) {
-            loader.deleteVertexBufferObjects(transparentModel.getVertexBufferObjectIDs());
-            loader.deleteVertexArrayObject(transparentModel.getVertexArrayObjectID());
-            transparentModel = null;
+        builder.put(x);                             // x position
+        builder.put(y);                             // y position
+        builder.put(z);                             // z position
+        builder.put(u);                             // u coordinate
+        builder.put(v);                             // v coordinate
+        builder.put(r);                             // red
+        builder.put(g);                             // green
+        builder.put(b);                             // blue
+        builder.put(alpha);                         // alpha
+        builder.put(tileU);                         // tile origin u
+        builder.put(tileV);                         // tile origin v
+    }
+
+    // Two uints decoded by packed_vertex.glsl:
+    //   word 0: x, y, z (5 bits each, corner + 0.5 so 0..16), u, v (5 bits each, 0..16), alpha (7 bits)
+    //   word 1: tile column, tile row (4 bits each), r, g, b (8 bits each)
+    private void putPackedVertex(MeshBuilder builder, float x, float y, float z, float u, float v, float r, float g, float b, float alpha, float tileU, float tileV) {
+        float tileSize = atlas.getTileSize();
+        int tileX = Math.round(tileU / tileSize);
+        int tileY = Math.round((1.0f - tileV) / tileSize) - 1; // Inverse of TextureAtlas.getUVCoords
+        builder.putInt(Math.round(x + 0.5f)
+                | Math.round(y + 0.5f) << 5
+                | Math.round(z + 0.5f) << 10
+                | (int) u << 15
+                | (int) v << 20
+                | Math.round(alpha * 127) << 25);
+        builder.putInt(tileX
+                | tileY << 4
+                | Math.round(r * 255) << 8
+                | Math.round(g * 255) << 16
+                | Math.round(b * 255) << 24);
+    }
+
+    // Uploads one part's range of the builder's quads, narrowing the buffer in place rather than through a duplicate
+    private ChunkArena.Allocation uploadMesh(ChunkArena.Allocation allocation, MeshBuilder builder, int[] starts, int part) {
+        int bytesPerQuad = 4 * vertexFormat.bytesPerVertex;
+        ByteBuffer vertices = builder.getVertices();
+        int limit = vertices.limit();
+        vertices.limit(starts[part + 1] * bytesPerQuad);
+        vertices.position(starts[part] * bytesPerQuad);
+        ChunkArena.Allocation uploaded = arena.upload(allocation, vertices, starts[part + 1] - starts[part],
+                position.x, position.y, position.z);
+        vertices.limit(limit);
+        vertices.position(0);
+        return uploaded;
+    }
+
+    private void cleanupMeshes() {
+        for (int part = 0; part < MESH_PARTS; part++) {
+            arena.free(opaqueMeshes[part]);
+            opaqueMeshes[part] = null;
+            arena.free(transparentMeshes[part]);
+            transparentMeshes[part] = null;
         }
     }
 
-    public RawModel getModel() {
-        return opaqueModel;
+    // Null when the part has no faces in that layer
+    public ChunkArena.Allocation getOpaqueMesh(int part) {
+        return opaqueMeshes[part];
     }
 
-    public RawModel getOpaqueModel() {
-        return opaqueModel;
+    public ChunkArena.Allocation getTransparentMesh(int part) {
+        return transparentMeshes[part];
     }
 
-    public RawModel getTransparentModel() {
-        return transparentModel;
+    public boolean hasOpaqueMesh() {
+        return hasAny(opaqueMeshes);
+    }
+
+    public boolean hasTransparentMesh() {
+        return hasAny(transparentMeshes);
+    }
+
+    private static boolean hasAny(ChunkArena.Allocation[] meshes) {
+        for (ChunkArena.Allocation mesh : meshes) {
+            if (mesh != null) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public Vector3f getPosition() {
@@ -359,29 +466,51 @@ public class Chunk {
         return Math.max(Math.abs(chunkX - otherChunkX), Math.abs(chunkZ - otherChunkZ));
     }
 
+    // 0: +x, 1: -x, 2: +z, 3: -z; null when that neighbor is not loaded
+    Chunk getNeighbor(int direction) {
+        return neighbors[direction];
+    }
+
+    long getVisibility() {
+        return visibility;
+    }
+
+    ChunkOccluder getOccluder() {
+        return occluder;
+    }
+
+    int getFrustumFrame() {
+        return frustumFrame;
+    }
+
+    void setFrustumFrame(int frame) {
+        this.frustumFrame = frame;
+    }
+
+    int getReachedFrame() {
+        return reachedFrame;
+    }
+
+    void setReachedFrame(int frame) {
+        this.reachedFrame = frame;
+    }
+
+    int getCullIndex() {
+        return cullIndex;
+    }
+
+    void setCullIndex(int cullIndex) {
+        this.cullIndex = cullIndex;
+    }
+
     public boolean isEmpty() {
-        for (int x = 0; x < CHUNK_SIZE; x++) {
-            for (int y = 0; y < CHUNK_SIZE; y++) {
-                for (int z = 0; z < CHUNK_SIZE; z++) {
-                    if (blocks[x][y][z] != null) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        return blocks.isEmpty();
     }
 
     public void cleanup() {
-        cleanupModels();
-        // Clear block references
-        for (int x = 0; x < CHUNK_SIZE; x++) {
-            for (int y = 0; y < CHUNK_SIZE; y++) {
-                for (int z = 0; z < CHUNK_SIZE; z++) {
-                    blocks[x][y][z] = null;
-                }
-            }
-        }
+        disposed = true;
+        cleanupMeshes();
+        // Block storage is left to the GC since a worker may still be meshing a neighbor against it
         // Clear neighbor references
         for (int i = 0; i < neighbors.length; i++) {
             neighbors[i] = null;
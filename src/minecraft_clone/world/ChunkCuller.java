@@ -0,0 +1,195 @@
+package minecraft_clone.world;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+
+import minecraft_clone.render.Frustum;
+
+// Keeps the bounds of every loaded chunk in parallel float arrays and culls them in two steps: a ChunkQuadtree
+// walk drops whole regions outside the view, then the chunks of the remaining regions are tested in one pass.
+// Chunks are CHUNK_SIZE cubes, so only their min corners are stored and each frustum plane reduces to
+// a dot product with a per-plane constant: plain counted loops over primitive arrays that the JIT can
+// unroll and vectorize. Large candidate sets are split across the common ForkJoinPool.
+// add/remove/cull must all run on the thread that owns the ChunkManager.
+public class ChunkCuller {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int PARALLEL_THRESHOLD = 8192; // A single thread culls ~4000 chunks in well under 0.1 ms
+    private static final int MIN_TASK_SIZE = 2048;
+
+    private Chunk[] chunks = new Chunk[INITIAL_CAPACITY];
+    private float[] minX = new float[INITIAL_CAPACITY];
+    private float[] minY = new float[INITIAL_CAPACITY];
+    private float[] minZ = new float[INITIAL_CAPACITY];
+    private int count;
+    private final ChunkQuadtree quadtree = new ChunkQuadtree();
+
+    // Chunk indices handed over by the quadtree walk, and the per-chunk result for each
+    private int[] candidates = new int[INITIAL_CAPACITY];
+    private boolean[] visible = new boolean[INITIAL_CAPACITY];
+    private int candidateCount;
+
+    // Inputs of the current cull, read by every range
+    private final float[] planeX = new float[6];
+    private final float[] planeY = new float[6];
+    private final float[] planeZ = new float[6];
+    private final float[] planeW = new float[6]; // Includes the offset to each plane's farthest box corner
+    private float cameraX, cameraY, cameraZ; // Camera position relative to a chunk's center
+    private float maxDistanceSquared;
+
+    public void add(Chunk chunk) {
+        if (count == chunks.length) {
+            grow(count * 2);
+        }
+        Vector3f position = chunk.getPosition();
+        chunks[count] = chunk;
+        minX[count] = position.x;
+        minY[count] = position.y;
+        minZ[count] = position.z;
+        chunk.setCullIndex(count);
+        count++;
+        quadtree.insert(chunk);
+    }
+
+    // Swap-removes the chunk; its bounds slot goes to the last chunk
+    public void remove(Chunk chunk) {
+        int index = chunk.getCullIndex();
+        if (index < 0) {
+            return;
+        }
+        quadtree.remove(chunk);
+        int last = --count;
+        if (index != last) {
+            Chunk moved = chunks[last];
+            chunks[index] = moved;
+            minX[index] = minX[last];
+            minY[index] = minY[last];
+            minZ[index] = minZ[last];
+            moved.setCullIndex(index);
+        }
+        chunks[last] = null;
+        chunk.setCullIndex(-1);
+    }
+
+    public void clear() {
+        for (int i = 0; i < count; i++) {
+            chunks[i].setCullIndex(-1);
+            chunks[i] = null;
+        }
+        count = 0;
+        candidateCount = 0;
+        quadtree.clear();
+    }
+
+    // Marks every chunk whose center is within maxDistance of the camera and whose box touches the frustum
+    public void cull(Frustum frustum, Vector3f cameraPos, float maxDistance) {
+        for (int p = 0; p < 6; p++) {
+            Vector4f plane = frustum.getPlane(p);
+            planeX[p] = plane.x;
+            planeY[p] = plane.y;
+            planeZ[p] = plane.z;
+            // The corner farthest along the normal is min + CHUNK_SIZE on each axis the normal points along
+            planeW[p] = plane.w + Chunk.CHUNK_SIZE * (Math.max(plane.x, 0.0f) + Math.max(plane.y, 0.0f) + Math.max(plane.z, 0.0f));
+        }
+        cameraX = cameraPos.x - Chunk.CHUNK_SIZE * 0.5f;
+        cameraY = cameraPos.y - Chunk.CHUNK_SIZE * 0.5f;
+        cameraZ = cameraPos.z - Chunk.CHUNK_SIZE * 0.5f;
+        maxDistanceSquared = maxDistance * maxDistance;
+
+        candidateCount = 0;
+        quadtree.collectCandidates(frustum, cameraPos, maxDistance, this);
+        if (candidateCount >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new CullTask(0, candidateCount));
+        } else {
+            cullRange(0, candidateCount);
+        }
+    }
+
+    void addCandidate(Chunk chunk) {
+        candidates[candidateCount++] = chunk.getCullIndex(); // Never more candidates than chunks
+    }
+
+    private void cullRange(int from, int to) {
+        float[] minX = this.minX;
+        float[] minY = this.minY;
+        float[] minZ = this.minZ;
+        int[] candidates = this.candidates;
+        boolean[] visible = this.visible;
+
+        for (int k = from; k < to; k++) {
+            int i = candidates[k];
+            float dx = minX[i] - cameraX;
+            float dy = minY[i] - cameraY;
+            float dz = minZ[i] - cameraZ;
+            visible[k] = dx * dx + dy * dy + dz * dz <= maxDistanceSquared;
+        }
+        for (int p = 0; p < 6; p++) {
+            float nx = planeX[p];
+            float ny = planeY[p];
+            float nz = planeZ[p];
+            float w = planeW[p];
+            for (int k = from; k < to; k++) {
+                int i = candidates[k];
+                visible[k] &= nx * minX[i] + ny * minY[i] + nz * minZ[i] + w >= 0.0f;
+            }
+        }
+    }
+
+    private final class CullTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        CullTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_TASK_SIZE) {
+                cullRange(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new CullTask(from, middle), new CullTask(middle, to));
+        }
+    }
+
+    private void grow(int capacity) {
+        chunks = Arrays.copyOf(chunks, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        minZ = Arrays.copyOf(minZ, capacity);
+        candidates = new int[capacity]; // Both rewritten by every cull
+        visible = new boolean[capacity];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Chunks that reached the per-chunk test in the last cull; every other chunk was culled with its region
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    public Chunk candidateAt(int candidate) {
+        return chunks[candidates[candidate]];
+    }
+
+    // Result of the last cull for the given candidate
+    public boolean isCandidateVisible(int candidate) {
+        return visible[candidate];
+    }
+
+    public String getVisitStats() {
+        StringBuilder stats = new StringBuilder("Cull visits -");
+        for (int level = ChunkQuadtree.LEVELS - 1; level >= 0; level--) {
+            stats.append(" L").append(level).append(": ").append(quadtree.getVisitCount(level)).append(',');
+        }
+        return stats.append(" Chunks tested: ").append(candidateCount).append('/').append(count).toString();
+    }
+}
@@ -0,0 +1,293 @@
+package minecraft_clone.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.joml.Vector3f;
+
+// Runs chunk generation and meshing jobs on a pool sized from the machine's cores, most urgent first.
+// Every job belongs to a chunk and is scored by the chunk's distance from the player, stretched for chunks away
+// from the view direction, so what the player is looking at fills in before what is behind them. setFocus()
+// re-scores the whole queue when the player moves or turns. Jobs for chunks farther than the cancel distance are
+// dropped without running and their cancel callback runs instead, so whoever queued them can undo its bookkeeping.
+// Prefetch jobs queue behind every normal job and have a cancel distance of their own.
+class ChunkJobScheduler {
+    // A chunk straight behind the player waits as long as one ahead at (1 + ANGLE_WEIGHT) times the distance
+    private static final float ANGLE_WEIGHT = 1.0f;
+    private static final float PREFETCH_PENALTY = 64.0f; // In chunks; prefetch jobs run after every normal job in range
+    private static final float REFOCUS_DOT = 0.9f; // Turning further than this (about 25 degrees) re-scores the queue
+
+    private static final class Job {
+        final int chunkX, chunkZ;
+        final boolean prefetch;
+        final Runnable task;
+        final Runnable onCancel;
+        final long sequence; // Submission order, breaks ties
+        float priority; // Lower runs first
+
+        Job(int chunkX, int chunkZ, boolean prefetch, Runnable task, Runnable onCancel, long sequence) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.prefetch = prefetch;
+            this.task = task;
+            this.onCancel = onCancel;
+            this.sequence = sequence;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Thread[] workers;
+    private volatile boolean shutdown;
+
+    // Guarded by lock
+    private Job[] heap = new Job[256];
+    private int size;
+    private long nextSequence;
+    private float focusX, focusZ; // In chunks
+    private float directionX = 1.0f, directionZ = 0.0f; // Horizontal view direction, unit length
+    private int focusChunkX, focusChunkZ;
+    private int cancelDistance = Integer.MAX_VALUE; // In chunks
+    private int prefetchCancelDistance = Integer.MAX_VALUE;
+
+    private final AtomicLong completedJobs = new AtomicLong();
+    private final AtomicLong cancelledJobs = new AtomicLong();
+
+    ChunkJobScheduler() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)); // Leave a core for the render thread
+    }
+
+    ChunkJobScheduler(int workerCount) {
+        workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(this::runWorker, "chunk-worker-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    void submit(int chunkX, int chunkZ, boolean prefetch, Runnable task, Runnable onCancel) {
+        lock.lock();
+        try {
+            if (shutdown) {
+                return;
+            }
+            Job job = new Job(chunkX, chunkZ, prefetch, task, onCancel, nextSequence++);
+            job.priority = score(job);
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            heap[size] = job;
+            siftUp(size++);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Moves the focus to the player. The queue is only re-scored when the player changes chunk, turns far enough,
+    // or the cancel distances change; jobs outside them are cancelled on the calling thread.
+    void setFocus(Vector3f position, Vector3f forward, int cancelDistance, int prefetchCancelDistance) {
+        float x = position.x / Chunk.CHUNK_SIZE;
+        float z = position.z / Chunk.CHUNK_SIZE;
+        float length = (float) Math.sqrt(forward.x * forward.x + forward.z * forward.z);
+        int chunkX = (int) Math.floor(x);
+        int chunkZ = (int) Math.floor(z);
+
+        List<Job> cancelled = null; // Most calls cancel nothing
+        lock.lock();
+        try {
+            // Looking straight up or down has no horizontal direction; keep the last one rather than re-score every frame
+            float dirX = length > 1.0e-4f ? forward.x / length : directionX;
+            float dirZ = length > 1.0e-4f ? forward.z / length : directionZ;
+            boolean turned = dirX * directionX + dirZ * directionZ < REFOCUS_DOT;
+            if (chunkX == focusChunkX && chunkZ == focusChunkZ && !turned && cancelDistance == this.cancelDistance
+                    && prefetchCancelDistance == this.prefetchCancelDistance) {
+                return;
+            }
+            focusX = x;
+            focusZ = z;
+            directionX = dirX;
+            directionZ = dirZ;
+            focusChunkX = chunkX;
+            focusChunkZ = chunkZ;
+            this.cancelDistance = cancelDistance;
+            this.prefetchCancelDistance = prefetchCancelDistance;
+
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                Job job = heap[i];
+                if (isOutOfRange(job)) {
+                    if (cancelled == null) {
+                        cancelled = new ArrayList<>();
+                    }
+                    cancelled.add(job);
+                } else {
+                    job.priority = score(job);
+                    heap[kept++] = job;
+                }
+            }
+            Arrays.fill(heap, kept, size, null);
+            size = kept;
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (cancelled != null) {
+            for (Job job : cancelled) {
+                cancel(job);
+            }
+        }
+    }
+
+    // Lower is sooner: distance in chunks, stretched by up to (1 + ANGLE_WEIGHT) as the chunk leaves the view
+    private float score(Job job) {
+        float dx = job.chunkX + 0.5f - focusX;
+        float dz = job.chunkZ + 0.5f - focusZ;
+        float distance = (float) Math.sqrt(dx * dx + dz * dz);
+        float score = 0.0f;
+        if (distance >= 1.0e-4f) {
+            float cos = (dx * directionX + dz * directionZ) / distance;
+            score = distance * (1.0f + ANGLE_WEIGHT * (1.0f - cos) * 0.5f);
+        }
+        return job.prefetch ? score + PREFETCH_PENALTY : score;
+    }
+
+    private boolean isOutOfRange(Job job) {
+        int distance = Math.max(Math.abs(job.chunkX - focusChunkX), Math.abs(job.chunkZ - focusChunkZ));
+        return distance > (job.prefetch ? prefetchCancelDistance : cancelDistance);
+    }
+
+    private void runWorker() {
+        while (true) {
+            Job job = take();
+            if (job == null) {
+                return;
+            }
+            try {
+                job.task.run();
+                completedJobs.incrementAndGet();
+            } catch (RuntimeException e) {
+                System.err.println("Chunk job " + job.chunkX + "," + job.chunkZ + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Blocks until a job in range is queued; null once shut down. Out-of-range jobs met on the way are cancelled.
+    private Job take() {
+        while (true) {
+            Job job;
+            lock.lock();
+            try {
+                while (size == 0 && !shutdown) {
+                    available.awaitUninterruptibly();
+                }
+                if (shutdown) {
+                    return null;
+                }
+                job = heap[0];
+                heap[0] = heap[--size];
+                heap[size] = null;
+                if (size > 0) {
+                    siftDown(0);
+                }
+                if (!isOutOfRange(job)) {
+                    return job;
+                }
+            } finally {
+                lock.unlock();
+            }
+            cancel(job);
+        }
+    }
+
+    private void cancel(Job job) {
+        cancelledJobs.incrementAndGet();
+        if (job.onCancel != null) {
+            job.onCancel.run();
+        }
+    }
+
+    private boolean before(Job a, Job b) {
+        return a.priority < b.priority || (a.priority == b.priority && a.sequence < b.sequence);
+    }
+
+    private void siftUp(int index) {
+        Job job = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(job, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = job;
+    }
+
+    private void siftDown(int index) {
+        Job job = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], job)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = job;
+    }
+
+    // Drops every queued job without running its cancel callback and stops the workers once their current job ends
+    void shutdownNow() {
+        lock.lock();
+        try {
+            shutdown = true;
+            Arrays.fill(heap, 0, size, null);
+            size = 0;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : workers) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            worker.join(remainingMillis);
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int getQueuedCount() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String getStats() {
+        return String.format("Jobs - Workers: %d, Queued: %d, Completed: %d, Cancelled: %d",
+                workers.length, getQueuedCount(), completedJobs.get(), cancelledJobs.get());
+    }
+}
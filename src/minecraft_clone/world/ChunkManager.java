@@ -1,156 +1,185 @@
 package minecraft_clone.world;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-
-import org.joml.Matrix4f;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.joml.Vector3f;
 
-import minecraft_clone.engine.BaseLoader;
+import minecraft_clone.engine.ChunkArena;
+import minecraft_clone.engine.MeshBuilder;
 import minecraft_clone.entity.Camera;
 import minecraft_clone.render.Frustum;
+import minecraft_clone.render.OcclusionBuffer;
 import minecraft_clone.render.TextureAtlas;
 
 public class ChunkManager {
-    private Map<String, Chunk> loadedChunks;
-    private Map<String, Future<Chunk>> pendingChunks;
-    private BaseLoader loader;
+    private ChunkMap<Chunk> loadedChunks;
+    private ChunkPipeline pipeline; // Chunks still being generated, and the ones around them
+    private ChunkArena arena;
     private TextureAtlas atlas;
-    private PerlinNoise noise;
-    private ExecutorService chunkGenerationExecutor;
-
+    private TerrainGenerator terrain;
+    private ChunkJobScheduler scheduler; // Generation stages and mesh builds, nearest to the player's view first
+    private ChunkPrefetcher prefetcher; // Generates ahead of where the player is heading
+    private final ConcurrentLinkedQueue<ChunkMesh> meshUploadQueue = new ConcurrentLinkedQueue<>();
+    // Loaded chunks that may need a new mesh: their neighbors changed, or a mesh build was cancelled or went stale
+    private final ConcurrentLinkedQueue<Chunk> meshCandidates = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger meshesInFlight = new AtomicInteger();
+    private long meshUploadTimeBudgetNanos = 2_000_000; // Per frame
+    private long meshUploadByteBudget = 8L * 1024 * 1024; // Per frame
+
+    private static final long SEED = 12345;
+    private static final int[] NEIGHBOR_X = {1, -1, 0, 0}; // Chunk.setNeighbor directions
+    private static final int[] NEIGHBOR_Z = {0, 0, 1, -1};
+    private static final int HEIGHTMAP_CACHE_SIZE = 4096; // Chunks' worth of heightmaps, about 1.3 MB
     private int renderDistance = 8; // Chunks to keep loaded around player
     private int unloadDistance = 10; // Distance at which to unload chunks
+    private volatile MeshingMode meshingMode = MeshingMode.GREEDY;
     private Vector3f lastPlayerPosition = new Vector3f();
     private boolean forceUpdate = true;
     private int lastPlayerChunkX = Integer.MAX_VALUE;
     private int lastPlayerChunkZ = Integer.MAX_VALUE;
     private boolean isInitialLoad = true;
-
-    private final Frustum frustum;
-    private final Vector3f chunkMin = new Vector3f();
-    private final Vector3f chunkMax = new Vector3f();
-    private final Vector3f chunkCenter = new Vector3f();
+    // Time-to-fill-view: teleport() starts a measurement, which ends once every chunk within the render distance is
+    // loaded and meshed
+    private long fillStartNanos = -1; // -1 when not measuring
+    private long lastFillMillis = -1;
+
+    private static final float MAX_CULL_DISTANCE = 16 * Chunk.CHUNK_SIZE; // Chunks farther than this are never drawn
+    private final ChunkCuller culler = new ChunkCuller(); // Bounds of every loaded chunk
+    private final ChunkOcclusionCuller occlusionCuller = new ChunkOcclusionCuller();
+    private boolean occlusionCulling = true;
+    // Software occlusion: nearby chunks' solid terrain is rasterized on the CPU and hides what is behind it
+    private static final float OCCLUDER_DISTANCE = 4 * Chunk.CHUNK_SIZE;
+    private final OcclusionBuffer occlusionBuffer = new OcclusionBuffer();
+    private boolean softwareOcclusion = false;
 
     private List<Chunk> visibleOpaqueChunks = new ArrayList<>();
     private List<Chunk> visibleTransparentChunks = new ArrayList<>();
+    private float[] transparentSortKeys = new float[64]; // Scratch for sorting visibleTransparentChunks
 
     private int totalChunks = 0;
     private int culledChunks = 0;
     private int renderedChunks = 0;
+    private int occludedChunks = 0; // In the frustum but hidden from the camera by the cave walk
+    private int hiddenChunks = 0; // Hidden behind terrain in the software occlusion buffer
 
-    public ChunkManager(BaseLoader loader, TextureAtlas atlas) {
-        this.loadedChunks = new ConcurrentHashMap<>();
-        this.pendingChunks = new ConcurrentHashMap<>();
-        this.loader = loader;
+    public ChunkManager(ChunkArena arena, TextureAtlas atlas) {
+        this.loadedChunks = new ChunkMap<>();
+        this.arena = arena;
         this.atlas = atlas;
-        this.noise = new PerlinNoise(12345);
-        this.chunkGenerationExecutor = Executors.newFixedThreadPool(4);
-        this.frustum = new Frustum();
+        this.terrain = new TerrainGenerator(SEED, HEIGHTMAP_CACHE_SIZE, TerrainShape.DENSITY);
+        this.pipeline = new ChunkPipeline(terrain, new TerrainDecorator(SEED), this::createChunk, this::onChunkReady);
+        this.scheduler = new ChunkJobScheduler();
+        this.prefetcher = new ChunkPrefetcher(pipeline);
     }
 
+    // Runs every tick, so it reuses the camera's cached frustum and allocates nothing once the lists have grown
     public void cullChunks(Camera camera, int screenWidth, int screenHeight) {
-        Matrix4f projectionMatrix = camera.getProjectionMatrix(screenWidth, screenHeight);
-        Matrix4f viewMatrix = camera.getViewMatrix();
-        Matrix4f projectionViewMatrix = new Matrix4f(projectionMatrix).mul(viewMatrix);
-
-        frustum.extractPlanes(projectionViewMatrix);
+        Frustum frustum = camera.getFrustum(screenWidth, screenHeight);
 
         visibleOpaqueChunks.clear();
         visibleTransparentChunks.clear();
 
-        totalChunks = loadedChunks.size();
-        culledChunks = 0;
+        totalChunks = culler.size();
         renderedChunks = 0;
 
-        for (Chunk chunk : loadedChunks.values()) {
-            if (isChunkVisible(chunk, camera.getPosition())) {
-                if (chunk.isMeshGenerated()) {
-                    if (chunk.getOpaqueModel() != null) {
-                        visibleOpaqueChunks.add(chunk);
-                    }
-                    if (chunk.getTransparentModel() != null) {
-                        visibleTransparentChunks.add(chunk);
-                    }
+        culler.cull(frustum, camera.getPosition(), MAX_CULL_DISTANCE);
+        int candidates = culler.getCandidateCount();
+        boolean occlusionApplied = false;
+        if (occlusionCulling) {
+            occlusionCuller.beginFrame();
+            for (int i = 0; i < candidates; i++) {
+                if (culler.isCandidateVisible(i)) {
+                    occlusionCuller.markInFrustum(culler.candidateAt(i));
+                }
+            }
+            occlusionApplied = occlusionCuller.traverse(getChunkAt(camera.getPosition()), camera.getPosition());
+        }
+        if (softwareOcclusion) {
+            rasterizeOccluders(camera, screenWidth, screenHeight, candidates, occlusionApplied);
+        }
+
+        occludedChunks = 0;
+        hiddenChunks = 0;
+        for (int i = 0; i < candidates; i++) {
+            Chunk chunk = culler.candidateAt(i);
+            if (!culler.isCandidateVisible(i)) {
+                continue;
+            }
+            if (occlusionApplied && !occlusionCuller.isReached(chunk)) {
+                occludedChunks++;
+                continue;
+            }
+            // Empty and unmeshed chunks count as culled
+            if (!chunk.isEmpty() && chunk.isMeshGenerated()) {
+                if (softwareOcclusion && !chunk.getOccluder().isVisible(occlusionBuffer, chunk.getPosition())) {
+                    hiddenChunks++;
+                    continue;
+                }
+                if (chunk.hasOpaqueMesh()) {
+                    visibleOpaqueChunks.add(chunk);
+                }
+                if (chunk.hasTransparentMesh()) {
+                    visibleTransparentChunks.add(chunk);
                 }
                 renderedChunks++;
-            } else {
-                culledChunks++;
             }
         }
+        culledChunks = totalChunks - renderedChunks;
 
         if (!visibleTransparentChunks.isEmpty()) {
-            final Vector3f finalCameraPos = new Vector3f(camera.getPosition());
-            visibleTransparentChunks.sort((a, b) -> {
-                float distA = a.getPosition().distanceSquared(finalCameraPos);
-                float distB = b.getPosition().distanceSquared(finalCameraPos);
-                return Float.compare(distB, distA); // Reverse order (farthest first)
-            });
+            sortFarthestFirst(visibleTransparentChunks, camera.getPosition());
         }
     }
 
-    private boolean isChunkVisible(Chunk chunk, Vector3f cameraPos) {
-        Vector3f chunkPos = chunk.getPosition();
-
-        // Calculate chunk bounding box
-        chunkMin.set(chunkPos.x, chunkPos.y, chunkPos.z);
-        chunkMax.set(chunkPos.x + Chunk.CHUNK_SIZE, chunkPos.y + Chunk.CHUNK_SIZE, chunkPos.z + Chunk.CHUNK_SIZE);
-        
-        // Early distance check - skip chunks that are very far away
-        chunkCenter.set(chunkPos.x + Chunk.CHUNK_SIZE * 0.5f, 
-                       chunkPos.y + Chunk.CHUNK_SIZE * 0.5f, 
-                       chunkPos.z + Chunk.CHUNK_SIZE * 0.5f);
-
-        float distanceSquared = cameraPos.distanceSquared(chunkCenter);
-        float maxRenderDistanceSquared = (16 * Chunk.CHUNK_SIZE) * (16 * Chunk.CHUNK_SIZE); // 16 chunks max distance
-
-        if (distanceSquared > maxRenderDistanceSquared) {
-            return false;
+    // Fills the occlusion buffer with the solid terrain of the nearest chunks that survived the earlier passes
+    private void rasterizeOccluders(Camera camera, int screenWidth, int screenHeight, int candidates, boolean occlusionApplied) {
+        occlusionBuffer.begin(camera.getProjectionViewMatrix(screenWidth, screenHeight));
+        float maxDistanceSquared = OCCLUDER_DISTANCE * OCCLUDER_DISTANCE;
+        Vector3f cameraPos = camera.getPosition();
+        for (int i = 0; i < candidates; i++) {
+            Chunk chunk = culler.candidateAt(i);
+            if (!culler.isCandidateVisible(i) || (occlusionApplied && !occlusionCuller.isReached(chunk))) {
+                continue;
+            }
+            Vector3f position = chunk.getPosition();
+            float dx = position.x + Chunk.CHUNK_SIZE * 0.5f - cameraPos.x;
+            float dz = position.z + Chunk.CHUNK_SIZE * 0.5f - cameraPos.z;
+            if (dx * dx + dz * dz <= maxDistanceSquared) {
+                chunk.getOccluder().addOccluders(occlusionBuffer, position);
+            }
         }
+        occlusionBuffer.rasterize();
+    }
 
-        // Skip empty chunks
-        if (chunk.isEmpty()) {
-            return false;
+    // Insertion sort on precomputed distances; List.sort would allocate a comparator and merge buffers every tick
+    private void sortFarthestFirst(List<Chunk> chunks, Vector3f cameraPos) {
+        int count = chunks.size();
+        if (transparentSortKeys.length < count) {
+            transparentSortKeys = new float[Math.max(count, transparentSortKeys.length * 2)];
         }
-
-        // Skip chunks without generated meshes
-        if (!chunk.isMeshGenerated()) {
-            return false;
+        float[] keys = transparentSortKeys;
+        for (int i = 0; i < count; i++) {
+            Chunk chunk = chunks.get(i);
+            float key = chunk.getPosition().distanceSquared(cameraPos);
+            int j = i - 1;
+            while (j >= 0 && keys[j] < key) {
+                keys[j + 1] = keys[j];
+                chunks.set(j + 1, chunks.get(j));
+                j--;
+            }
+            keys[j + 1] = key;
+            chunks.set(j + 1, chunk);
         }
-
-        // Frustum culling test
-        return frustum.isAABBInside(chunkMin, chunkMax);
     }
 
     public void preloadInitialChunks(Vector3f playerPosition, Camera camera) {
         int playerChunkX = (int) Math.floor(playerPosition.x / Chunk.CHUNK_SIZE);
         int playerChunkZ = (int) Math.floor(playerPosition.z / Chunk.CHUNK_SIZE);
 
-        float worldX = playerPosition.x;
-        float worldZ = playerPosition.z;
-        float height = 0;
-        float amplitude = 1;
-        float frequency = 0.01f;
-
-        for (int i = 0; i < 4; i++) {
-            height += noise.noise(worldX * frequency, worldZ * frequency) * amplitude;
-            amplitude *= 0.5f;
-            frequency *= 2.0f;
-        }
-
-        int terrainHeight = (int) ((height + 1) * 0.3f * Chunk.CHUNK_SIZE) + Chunk.CHUNK_SIZE / 4;
-        terrainHeight = Math.max(1, Math.min(Chunk.CHUNK_SIZE - 1, terrainHeight));
-
-        playerPosition.y = terrainHeight + 2.0f;
-        camera.setPosition(playerPosition);
-
         int initialLoadRadius = Math.min(3, renderDistance);
 
         System.out.println("Preloading initial chunks...");
@@ -158,18 +187,29 @@ public class ChunkManager {
 
         for (int x = playerChunkX - initialLoadRadius; x <= playerChunkX + initialLoadRadius; x++) {
             for (int z = playerChunkZ - initialLoadRadius; z <= playerChunkZ + initialLoadRadius; z++) {
-                String chunkKey = getChunkKey(x, z);
-                if (!loadedChunks.containsKey(chunkKey)) {
-                    // Create chunk synchronously
-                    Vector3f position = new Vector3f(x * Chunk.CHUNK_SIZE, 0, z * Chunk.CHUNK_SIZE);
-                    Chunk chunk = new Chunk(position, loader, atlas, noise);
-                    loadedChunks.put(chunkKey, chunk);
+                if (!loadedChunks.containsKey(ChunkMap.key(x, z))) {
+                    pipeline.request(x, z, ChunkStatus.MESH_READY);
                 }
             }
         }
+        // Generate them synchronously; each one lands in loadedChunks as it becomes ready
+        pipeline.runUntilIdle();
+
+        // Stand on the highest block of the spawn column; 3D terrain can put overhangs above the heightmap surface
+        int blockX = (int) Math.floor(playerPosition.x);
+        int blockZ = (int) Math.floor(playerPosition.z);
+        Chunk spawnChunk = loadedChunks.get(playerChunkX, playerChunkZ);
+        int terrainHeight = spawnChunk.getSurfaceHeight(Math.floorMod(blockX, Chunk.CHUNK_SIZE), Math.floorMod(blockZ, Chunk.CHUNK_SIZE));
+        playerPosition.y = terrainHeight + 2.0f;
+        camera.setPosition(playerPosition);
 
-        // Update neighbors and generate meshes for initial chunks
-        updateChunkNeighbors();
+        // Generate meshes for initial chunks right away so the first frame has terrain; they were linked as they arrived
+        Chunk chunk;
+        while ((chunk = meshCandidates.poll()) != null) {
+            if (chunk.needsMeshUpdate()) {
+                chunk.generateMesh();
+            }
+        }
 
         long endTime = System.currentTimeMillis();
         System.out.println("Initial chunks loaded in " + (endTime - startTime) + "ms");
@@ -181,200 +221,281 @@ public class ChunkManager {
         lastPlayerPosition.set(playerPosition);
     }
 
-    public void updateChunks(Vector3f playerPosition) {
+    public void updateChunks(Camera camera) {
+        Vector3f playerPosition = camera.getPosition();
         int playerChunkX = (int) Math.floor(playerPosition.x / Chunk.CHUNK_SIZE);
         int playerChunkZ = (int) Math.floor(playerPosition.z / Chunk.CHUNK_SIZE);
 
+        // Queued jobs follow the player and the view; the ones that fell out of range are dropped unrun
+        scheduler.setFocus(playerPosition, camera.getForward(), unloadDistance + ChunkPipeline.MARGIN, getPrefetchKeepDistance());
+        prefetcher.update(playerPosition, camera.getForward(), renderDistance);
+        // Generation advances on every update, even while the player stays in the same chunk
+        pipeline.update(scheduler);
+
         if (!forceUpdate && playerChunkX == lastPlayerChunkX && playerChunkZ == lastPlayerChunkZ) {
+            scheduleMeshUpdates();
+            checkViewFilled(playerChunkX, playerChunkZ);
             return;
         }
 
+        // A plain border crossing only touches the strips entering and leaving the square; anything else rescans it
+        boolean fullUpdate = forceUpdate || isInitialLoad || lastPlayerChunkX == Integer.MAX_VALUE;
+        int oldChunkX = lastPlayerChunkX;
+        int oldChunkZ = lastPlayerChunkZ;
         lastPlayerChunkX = playerChunkX;
         lastPlayerChunkZ = playerChunkZ;
         forceUpdate = false;
         lastPlayerPosition.set(playerPosition);
 
-        Set<String> chunksToLoad = getChunksInRange(playerChunkX, playerChunkZ, renderDistance);
-
-        if (isInitialLoad) {
-            loadInitialChunksSync(chunksToLoad, playerChunkX, playerChunkZ);
+        if (fullUpdate) {
+            long[] chunksToLoad = getChunksInRange(playerChunkX, playerChunkZ, renderDistance);
+            if (isInitialLoad) {
+                loadInitialChunksSync(chunksToLoad, playerChunkX, playerChunkZ);
+            } else {
+                loadNewChunks(chunksToLoad);
+            }
+            unloadDistantChunks(playerChunkX, playerChunkZ);
         } else {
-            loadNewChunks(chunksToLoad);
+            loadEnteringChunks(oldChunkX, oldChunkZ, playerChunkX, playerChunkZ);
+            unloadLeavingChunks(oldChunkX, oldChunkZ, playerChunkX, playerChunkZ);
         }
+        // Drop chunks still being generated that are too far, keeping the margin loaded chunks depend on
+        pipeline.setWindow(playerChunkX, playerChunkZ, unloadDistance + ChunkPipeline.MARGIN, getPrefetchKeepDistance());
 
-        unloadDistantChunks(playerChunkX, playerChunkZ);
-
-        updateChunkNeighbors();
-    }
-
-    private void loadInitialChunksSync(Set<String> chunksToLoad, int playerChunkX, int playerChunkZ) {
-        // Sort chunks by distance from player for priority loading
-        List<String> sortedChunks = new ArrayList<>(chunksToLoad);
-        sortedChunks.sort((a, b) -> {
-            String[] coordsA = a.split(",");
-            String[] coordsB = b.split(",");
-            int chunkXA = Integer.parseInt(coordsA[0]);
-            int chunkZA = Integer.parseInt(coordsA[1]);
-            int chunkXB = Integer.parseInt(coordsB[0]);
-            int chunkZB = Integer.parseInt(coordsB[1]);
-            
-            int distA = Math.max(Math.abs(chunkXA - playerChunkX), Math.abs(chunkZA - playerChunkZ));
-            int distB = Math.max(Math.abs(chunkXB - playerChunkX), Math.abs(chunkZB - playerChunkZ));
-            
-            return Integer.compare(distA, distB);
-        });
+        scheduleMeshUpdates();
+        checkViewFilled(playerChunkX, playerChunkZ);
+    }
 
-        // Load closest chunks synchronously, distant ones asynchronously
-        int syncLoadRadius = 2; // Load chunks within 2 blocks synchronously
-        
-        for (String chunkKey : sortedChunks) {
-            if (!loadedChunks.containsKey(chunkKey) && !pendingChunks.containsKey(chunkKey)) {
-                String[] coords = chunkKey.split(",");
-                int chunkX = Integer.parseInt(coords[0]);
-                int chunkZ = Integer.parseInt(coords[1]);
-                int distance = Math.max(Math.abs(chunkX - playerChunkX), Math.abs(chunkZ - playerChunkZ));
-                
-                if (distance <= syncLoadRadius) {
-                    // Load synchronously for immediate availability
-                    Vector3f position = new Vector3f(chunkX * Chunk.CHUNK_SIZE, 0, chunkZ * Chunk.CHUNK_SIZE);
-                    Chunk chunk = new Chunk(position, loader, atlas, noise);
-                    loadedChunks.put(chunkKey, chunk);
-                } else {
-                    // Load asynchronously for distant chunks
-                    Future<Chunk> future = chunkGenerationExecutor.submit(() -> {
-                        Vector3f position = new Vector3f(chunkX * Chunk.CHUNK_SIZE, 0, chunkZ * Chunk.CHUNK_SIZE);
-                        return new Chunk(position, loader, atlas, noise);
-                    });
-                    pendingChunks.put(chunkKey, future);
+    // Prefetched chunks, and the margin they pull in, are kept this far out
+    private int getPrefetchKeepDistance() {
+        return renderDistance + ChunkPrefetcher.MAX_DEPTH + 1 + ChunkPipeline.MARGIN;
+    }
+
+    // Debug teleport: moves the camera chunkDistance chunks along its view direction, level with the ground, to just
+    // above the heightmap surface there, and times how long the view takes to fill in around it
+    public void teleport(Camera camera, int chunkDistance) {
+        Vector3f forward = camera.getForward();
+        float scale = chunkDistance * Chunk.CHUNK_SIZE / (float) Math.sqrt(forward.x * forward.x + forward.z * forward.z);
+        Vector3f position = camera.getPosition();
+        float x = position.x + forward.x * scale;
+        float z = position.z + forward.z * scale;
+        position.set(x, terrain.getHeight(x, z) + 2.0f, z);
+        camera.setPosition(position);
+        fillStartNanos = System.nanoTime();
+    }
+
+    // Ends a time-to-fill-view measurement once everything in range is loaded and has a mesh
+    private void checkViewFilled(int playerChunkX, int playerChunkZ) {
+        if (fillStartNanos < 0) {
+            return;
+        }
+        for (int x = playerChunkX - renderDistance; x <= playerChunkX + renderDistance; x++) {
+            for (int z = playerChunkZ - renderDistance; z <= playerChunkZ + renderDistance; z++) {
+                Chunk chunk = loadedChunks.get(x, z);
+                if (chunk == null || !chunk.isMeshGenerated()) {
+                    return;
                 }
             }
         }
-        
-        // Check completed async chunks
-        checkCompletedChunks();
+        lastFillMillis = (System.nanoTime() - fillStartNanos) / 1_000_000;
+        fillStartNanos = -1;
+        System.out.println("View filled " + lastFillMillis + "ms after teleport");
     }
 
-    private Set<String> getChunksInRange(int centerX, int centerZ, int range) {
-        Set<String> chunks = new HashSet<>();
-        for (int x = centerX - range; x <= centerX + range; x++) {
-            for (int z = centerZ - range; z <= centerZ + range; z++) {
-                chunks.add(getChunkKey(x, z));
+    private void loadInitialChunksSync(long[] chunksToLoad, int playerChunkX, int playerChunkZ) {
+        // Chunks arrive ordered by distance from the player, so the closest ones load first
+        int syncLoadRadius = 2; // Load chunks within 2 blocks synchronously
+
+        for (long chunkKey : chunksToLoad) {
+            int chunkX = ChunkMap.keyX(chunkKey);
+            int chunkZ = ChunkMap.keyZ(chunkKey);
+            int distance = Math.max(Math.abs(chunkX - playerChunkX), Math.abs(chunkZ - playerChunkZ));
+            if (distance <= syncLoadRadius && !loadedChunks.containsKey(chunkKey)) {
+                pipeline.request(chunkX, chunkZ, ChunkStatus.MESH_READY);
             }
         }
-        return chunks;
+        // Load synchronously for immediate availability, then leave the distant chunks to the workers
+        pipeline.runUntilIdle();
+        loadNewChunks(chunksToLoad);
     }
 
-    private void loadNewChunks(Set<String> chunksToLoad) {
-        for (String chunkKey : chunksToLoad) {
-            if (!loadedChunks.containsKey(chunkKey) && !pendingChunks.containsKey(chunkKey)) {
-                // Start async chunk generation
-                Future<Chunk> future = chunkGenerationExecutor.submit(() -> {
-                    String[] coords = chunkKey.split(",");
-                    int chunkX = Integer.parseInt(coords[0]);
-                    int chunkZ = Integer.parseInt(coords[1]);
-                    Vector3f position = new Vector3f(chunkX * Chunk.CHUNK_SIZE, 0, chunkZ * Chunk.CHUNK_SIZE);
-                    return new Chunk(position, loader, atlas, noise);
-                });
-                pendingChunks.put(chunkKey, future);
+    // Returns the keys of every chunk within range, ordered ring by ring outward from the center
+    private long[] getChunksInRange(int centerX, int centerZ, int range) {
+        int side = 2 * range + 1;
+        long[] chunks = new long[side * side];
+        int count = 0;
+        chunks[count++] = ChunkMap.key(centerX, centerZ);
+        for (int ring = 1; ring <= range; ring++) {
+            for (int offset = -ring; offset <= ring; offset++) {
+                chunks[count++] = ChunkMap.key(centerX + offset, centerZ - ring);
+                chunks[count++] = ChunkMap.key(centerX + offset, centerZ + ring);
+            }
+            for (int offset = -ring + 1; offset <= ring - 1; offset++) {
+                chunks[count++] = ChunkMap.key(centerX - ring, centerZ + offset);
+                chunks[count++] = ChunkMap.key(centerX + ring, centerZ + offset);
             }
         }
+        return chunks;
+    }
 
-        checkCompletedChunks();
-    }
-
-    private void checkCompletedChunks() {
-        // Check for completed chunk generations
-        List<String> completedChunks = new ArrayList<>();
-        for (Map.Entry<String, Future<Chunk>> entry : pendingChunks.entrySet()) {
-            if (entry.getValue().isDone()) {
-                try {
-                    Chunk chunk = entry.getValue().get();
-                    loadedChunks.put(entry.getKey(), chunk);
-                    completedChunks.add(entry.getKey());
-                } catch (Exception e) {
-                    System.err.println("Error generating chunk " + entry.getKey() + ": " + e.getMessage());
-                    completedChunks.add(entry.getKey()); // Remove from pending even if failed
-                }
+    private void loadNewChunks(long[] chunksToLoad) {
+        for (long chunkKey : chunksToLoad) {
+            if (!loadedChunks.containsKey(chunkKey)) {
+                pipeline.request(ChunkMap.keyX(chunkKey), ChunkMap.keyZ(chunkKey), ChunkStatus.MESH_READY);
             }
         }
-        
-        // Remove completed chunks from pending
-        for (String key : completedChunks) {
-            pendingChunks.remove(key);
+        pipeline.update(scheduler);
+    }
+
+    // Requests the chunks that came within the render distance when the player moved from the old chunk to the new one
+    private void loadEnteringChunks(int oldChunkX, int oldChunkZ, int playerChunkX, int playerChunkZ) {
+        ChunkSquare.forEachOutside(playerChunkX, playerChunkZ, oldChunkX, oldChunkZ, renderDistance, chunkKey -> {
+            if (!loadedChunks.containsKey(chunkKey)) {
+                pipeline.request(ChunkMap.keyX(chunkKey), ChunkMap.keyZ(chunkKey), ChunkStatus.MESH_READY);
+            }
+        });
+        pipeline.update(scheduler);
+    }
+
+    // Called by the pipeline on this thread when a chunk has been generated far enough to be meshed
+    private void onChunkReady(Chunk chunk) {
+        long chunkKey = ChunkMap.key(chunk.getChunkX(), chunk.getChunkZ());
+        if (lastPlayerChunkX != Integer.MAX_VALUE && ChunkSquare.distance(chunkKey, lastPlayerChunkX, lastPlayerChunkZ) > unloadDistance) {
+            // The player moved away while it generated. Loaded chunks must stay within the unload distance, since
+            // unloading only looks at the strip the player leaves behind.
+            pipeline.discard(chunkKey);
+            return;
         }
+        chunk.setMeshingMode(meshingMode);
+        addLoadedChunk(chunkKey, chunk);
     }
 
     private void unloadDistantChunks(int playerChunkX, int playerChunkZ) {
-        List<String> chunksToUnload = new ArrayList<>();
-        
-        for (String chunkKey : loadedChunks.keySet()) {
-            String[] coords = chunkKey.split(",");
-            int chunkX = Integer.parseInt(coords[0]);
-            int chunkZ = Integer.parseInt(coords[1]);
-            
-            int distance = Math.max(Math.abs(chunkX - playerChunkX), Math.abs(chunkZ - playerChunkZ));
-            
-            if (distance > unloadDistance) {
-                chunksToUnload.add(chunkKey);
+        for (int slot = 0, capacity = loadedChunks.capacity(); slot < capacity; slot++) {
+            if (loadedChunks.valueAt(slot) != null && ChunkSquare.distance(loadedChunks.keyAt(slot), playerChunkX, playerChunkZ) > unloadDistance) {
+                unloadChunk(loadedChunks.keyAt(slot));
             }
         }
-        
-        // Unload chunks
-        for (String chunkKey : chunksToUnload) {
-            Chunk chunk = loadedChunks.remove(chunkKey);
-            if (chunk != null) {
-                // Clean up chunk resources if needed
-                cleanupChunk(chunk);
-            }
+    }
+
+    // Unloads the chunks that fell outside the unload distance when the player moved from the old chunk to the new one
+    private void unloadLeavingChunks(int oldChunkX, int oldChunkZ, int playerChunkX, int playerChunkZ) {
+        ChunkSquare.forEachOutside(oldChunkX, oldChunkZ, playerChunkX, playerChunkZ, unloadDistance, this::unloadChunk);
+    }
+
+    private void unloadChunk(long chunkKey) {
+        Chunk chunk = removeLoadedChunk(chunkKey);
+        if (chunk != null) {
+            cleanupChunk(chunk);
+            // Coming back regenerates it from scratch
+            pipeline.discard(chunkKey);
         }
-        
-        // Also cancel pending chunks that are too far
-        List<String> pendingToCancel = new ArrayList<>();
-        for (String chunkKey : pendingChunks.keySet()) {
-            String[] coords = chunkKey.split(",");
-            int chunkX = Integer.parseInt(coords[0]);
-            int chunkZ = Integer.parseInt(coords[1]);
-            
-            int distance = Math.max(Math.abs(chunkX - playerChunkX), Math.abs(chunkZ - playerChunkZ));
-            
-            if (distance > unloadDistance) {
-                pendingToCancel.add(chunkKey);
+    }
+
+    // Meshes dirty chunks on the worker pool; results wait in meshUploadQueue for uploadPendingMeshes
+    private void scheduleMeshUpdates() {
+        Chunk chunk;
+        while ((chunk = meshCandidates.poll()) != null) {
+            // A chunk already being meshed is queued again when its mesh is uploaded, if it is still dirty
+            if (chunk.needsMeshUpdate() && !chunk.isMeshQueued() && loadedChunks.get(chunk.getChunkX(), chunk.getChunkZ()) == chunk) {
+                submitMeshBuild(chunk);
             }
         }
-        
-        for (String chunkKey : pendingToCancel) {
-            Future<Chunk> future = pendingChunks.remove(chunkKey);
-            if (future != null) {
-                future.cancel(true);
+    }
+
+    // Builds only the parts marked dirty: usually the whole mesh for a new chunk, one border strip for a new neighbor
+    private void submitMeshBuild(Chunk chunk) {
+        int parts = chunk.markMeshQueued();
+        meshesInFlight.incrementAndGet();
+        scheduler.submit(chunk.getChunkX(), chunk.getChunkZ(), false, () -> {
+            try {
+                meshUploadQueue.add(chunk.buildMesh(parts));
+            } catch (RuntimeException e) {
+                System.err.println("Error meshing chunk " + chunk.getChunkX() + "," + chunk.getChunkZ() + ": " + e.getMessage());
+                meshesInFlight.decrementAndGet();
+                chunk.cancelMeshQueued(parts);
+                meshCandidates.add(chunk);
             }
-        }
+        }, () -> {
+            meshesInFlight.decrementAndGet();
+            chunk.cancelMeshQueued(parts);
+            meshCandidates.add(chunk);
+        });
     }
 
-    private void updateChunkNeighbors() {
-        for (Map.Entry<String, Chunk> entry : loadedChunks.entrySet()) {
-            String chunkKey = entry.getKey();
-            Chunk chunk = entry.getValue();
-            String[] coords = chunkKey.split(",");
-            int chunkX = Integer.parseInt(coords[0]);
-            int chunkZ = Integer.parseInt(coords[1]);
-            
-            // Set neighbors: 0 (+x), 1 (-x), 2 (+z), 3 (-z)
-            chunk.setNeighbor(0, loadedChunks.get(getChunkKey(chunkX + 1, chunkZ))); // +x
-            chunk.setNeighbor(1, loadedChunks.get(getChunkKey(chunkX - 1, chunkZ))); // -x
-            chunk.setNeighbor(2, loadedChunks.get(getChunkKey(chunkX, chunkZ + 1))); // +z
-            chunk.setNeighbor(3, loadedChunks.get(getChunkKey(chunkX, chunkZ - 1))); // -z
-        }
-        
-        // Generate meshes for chunks that need updates
-        for (Chunk chunk : loadedChunks.values()) {
+    // Uploads finished meshes until this frame's time or byte budget runs out; must run on the GL thread.
+    // Chunks keep drawing their previous mesh until their new one is uploaded here.
+    public void uploadPendingMeshes() {
+        long startTime = System.nanoTime();
+        long uploadedBytes = 0;
+        ChunkMesh mesh;
+        while ((mesh = meshUploadQueue.poll()) != null) {
+            meshesInFlight.decrementAndGet();
+            uploadedBytes += mesh.getSizeInBytes();
+            Chunk chunk = mesh.getChunk();
+            chunk.applyMesh(mesh);
+            mesh.release();
             if (chunk.needsMeshUpdate()) {
-                chunk.generateMesh();
+                meshCandidates.add(chunk); // Changed again while this mesh was being built
             }
+
+            // Always upload at least one mesh per frame so the queue keeps draining
+            if (System.nanoTime() - startTime >= meshUploadTimeBudgetNanos || uploadedBytes >= meshUploadByteBudget) {
+                break;
+            }
+        }
+        arena.compactIfFragmented();
+    }
+
+    public void setMeshUploadBudget(long timeBudgetNanos, long byteBudget) {
+        this.meshUploadTimeBudgetNanos = timeBudgetNanos;
+        this.meshUploadByteBudget = byteBudget;
+    }
+
+    private Chunk createChunk(int chunkX, int chunkZ) {
+        Vector3f position = new Vector3f(chunkX * Chunk.CHUNK_SIZE, 0, chunkZ * Chunk.CHUNK_SIZE);
+        return new Chunk(position, arena, atlas, meshingMode);
+    }
+
+    // Loaded chunks must go through these two so the culler's bounds and the neighbor links stay in step with
+    // loadedChunks. Only the chunk and the four chunks beside it are touched.
+    private void addLoadedChunk(long chunkKey, Chunk chunk) {
+        Chunk replaced = loadedChunks.put(chunkKey, chunk);
+        if (replaced != null) {
+            culler.remove(replaced);
         }
+        culler.add(chunk);
+        chunk.markForMeshUpdate(); // Even with no neighbors loaded yet
+        linkNeighbors(chunkKey, chunk);
     }
 
-    private String getChunkKey(int chunkX, int chunkZ) {
-        return chunkX + "," + chunkZ;
+    private Chunk removeLoadedChunk(long chunkKey) {
+        Chunk chunk = loadedChunks.remove(chunkKey);
+        if (chunk != null) {
+            culler.remove(chunk);
+            linkNeighbors(chunkKey, null);
+        }
+        return chunk;
+    }
+
+    // Points the chunks beside the key at the chunk now there, or at null, and the chunk at them
+    private void linkNeighbors(long chunkKey, Chunk chunk) {
+        int chunkX = ChunkMap.keyX(chunkKey);
+        int chunkZ = ChunkMap.keyZ(chunkKey);
+        // Directions 0 (+x), 1 (-x), 2 (+z), 3 (-z); direction ^ 1 is the opposite side
+        for (int direction = 0; direction < 4; direction++) {
+            Chunk neighbor = loadedChunks.get(chunkX + NEIGHBOR_X[direction], chunkZ + NEIGHBOR_Z[direction]);
+            if (chunk != null) {
+                chunk.setNeighbor(direction, neighbor);
+            }
+            if (neighbor != null) {
+                neighbor.setNeighbor(direction ^ 1, chunk);
+                meshCandidates.add(neighbor);
+            }
+        }
+        if (chunk != null) {
+            meshCandidates.add(chunk);
+        }
     }
 
     private void cleanupChunk(Chunk chunk) {
@@ -403,36 +524,109 @@ public class ChunkManager {
         return renderDistance;
     }
 
+    public void setMeshingMode(MeshingMode meshingMode) {
+        this.meshingMode = meshingMode;
+        for (int slot = 0, capacity = loadedChunks.capacity(); slot < capacity; slot++) {
+            Chunk chunk = loadedChunks.valueAt(slot);
+            if (chunk != null) {
+                chunk.setMeshingMode(meshingMode);
+                meshCandidates.add(chunk);
+            }
+        }
+        forceUpdate();
+    }
+
+    public void setOcclusionCulling(boolean enabled) {
+        this.occlusionCulling = enabled;
+    }
+
+    public boolean isOcclusionCulling() {
+        return occlusionCulling;
+    }
+
+    // Off by default: it costs CPU time every frame and only pays off where terrain hides a lot
+    public void setSoftwareOcclusion(boolean enabled) {
+        this.softwareOcclusion = enabled;
+    }
+
+    public boolean isSoftwareOcclusion() {
+        return softwareOcclusion;
+    }
+
+    public MeshingMode getMeshingMode() {
+        return meshingMode;
+    }
+
+    public TerrainGenerator getTerrain() {
+        return terrain;
+    }
+
+    public ChunkArena getArena() {
+        return arena;
+    }
+
     public Chunk getChunkAt(Vector3f worldPosition) {
         int chunkX = (int) Math.floor(worldPosition.x / Chunk.CHUNK_SIZE);
         int chunkZ = (int) Math.floor(worldPosition.z / Chunk.CHUNK_SIZE);
-        return loadedChunks.get(getChunkKey(chunkX, chunkZ));
+        return loadedChunks.get(chunkX, chunkZ);
     }
 
     public boolean isChunkLoaded(int chunkX, int chunkZ) {
-        return loadedChunks.containsKey(getChunkKey(chunkX, chunkZ));
+        return loadedChunks.containsKey(ChunkMap.key(chunkX, chunkZ));
     }
 
     public String getLoadingStats() {
-        return String.format("Loaded: %d, Pending: %d, Render Distance: %d", loadedChunks.size(), pendingChunks.size(), renderDistance);
+        return String.format("Loaded: %d, Generating: %d (%d stages running), Deferred writes: %d chunks, Meshing: %d, Render Distance: %d",
+                loadedChunks.size(), pipeline.size() - loadedChunks.size(), pipeline.getRunningCount(),
+                pipeline.getPendingWriteTargets(), meshesInFlight.get(), renderDistance);
+    }
+
+    public String getPrefetchStats() {
+        return prefetcher.getStats();
+    }
+
+    // Scheduler queue state, and how long the view took to fill after the last teleport
+    public String getJobStats() {
+        String fill = fillStartNanos >= 0 ? "filling" : lastFillMillis >= 0 ? lastFillMillis + " ms" : "n/a";
+        return scheduler.getStats() + ", Time to fill view after teleport: " + fill;
     }
 
     public String getCullingStats() {
-        return String.format("Chunks - Total: %d, Rendered: %d, Culled: %d (%.1f%%)", 
+        return String.format("Chunks - Total: %d, Rendered: %d, Culled: %d (%.1f%%), Occluded: %d, Hidden: %d", 
                            totalChunks, renderedChunks, culledChunks, 
-                           totalChunks > 0 ? (culledChunks * 100.0f / totalChunks) : 0.0f);
+                           totalChunks > 0 ? (culledChunks * 100.0f / totalChunks) : 0.0f, occludedChunks, hiddenChunks);
+    }
+
+    // Regions visited per quadtree level by the last cull; should track the visible set, not the loaded one
+    public String getCullVisitStats() {
+        return culler.getVisitStats();
     }
 
     public void cleanup() {
-        chunkGenerationExecutor.shutdown();
-        for (Future<Chunk> future : pendingChunks.values()) {
-            future.cancel(true);
+        scheduler.shutdownNow();
+        try {
+            // Workers must stop writing into mesh builders before they are freed below
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        pendingChunks.clear();
-        
-        for (Chunk chunk : loadedChunks.values()) {
-            cleanupChunk(chunk);
+        pipeline.clear();
+        prefetcher.clear();
+
+        for (int slot = 0, capacity = loadedChunks.capacity(); slot < capacity; slot++) {
+            Chunk chunk = loadedChunks.valueAt(slot);
+            if (chunk != null) {
+                cleanupChunk(chunk);
+            }
         }
         loadedChunks.clear();
+        culler.clear();
+
+        ChunkMesh mesh;
+        while ((mesh = meshUploadQueue.poll()) != null) {
+            mesh.release();
+        }
+        meshCandidates.clear();
+        MeshBuilder.freeAll();
     }
 }
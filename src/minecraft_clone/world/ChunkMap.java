@@ -0,0 +1,178 @@
+package minecraft_clone.world;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Open-addressing hash map keyed by packed chunk coordinates (x << 32 | z).
+// Writers are serialized on the map; readers never lock and see a consistent table through a volatile reference.
+// Iterate without allocating by walking slots 0..capacity() with valueAt()/keyAt(); do not put() while iterating.
+public class ChunkMap<V> {
+    private static final int MIN_CAPACITY = 16;
+    private static final Object REMOVED = new Object();
+
+    private static final class Table {
+        final long[] keys;
+        final AtomicReferenceArray<Object> values; // null: never used, REMOVED: tombstone
+        final int shift;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        }
+    }
+
+    private volatile Table table;
+    private volatile int size;
+    private int usedSlots; // Live entries plus tombstones
+
+    public ChunkMap() {
+        this.table = new Table(MIN_CAPACITY);
+    }
+
+    public static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int keyX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int keyZ(long key) {
+        return (int) key;
+    }
+
+    public V get(int chunkX, int chunkZ) {
+        return get(key(chunkX, chunkZ));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        Table t = table;
+        int mask = t.keys.length - 1;
+        for (int slot = slotFor(t, key); ; slot = (slot + 1) & mask) {
+            Object value = t.values.get(slot);
+            if (value == null) {
+                return null;
+            }
+            if (value != REMOVED && t.keys[slot] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("ChunkMap does not store null values");
+        }
+        Table t = table;
+        int mask = t.keys.length - 1;
+        for (int slot = slotFor(t, key); ; slot = (slot + 1) & mask) {
+            Object existing = t.values.get(slot);
+            if (existing == null) {
+                break;
+            }
+            if (existing != REMOVED && t.keys[slot] == key) {
+                t.values.set(slot, value);
+                return (V) existing;
+            }
+        }
+
+        // Keep the table at most half full (tombstones included) so probe chains stay short
+        if ((usedSlots + 1) * 2 > t.keys.length) {
+            t = rehash(size + 1);
+        }
+        insertNew(t, key, value);
+        usedSlots++;
+        size++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized V remove(long key) {
+        Table t = table;
+        int mask = t.keys.length - 1;
+        for (int slot = slotFor(t, key); ; slot = (slot + 1) & mask) {
+            Object existing = t.values.get(slot);
+            if (existing == null) {
+                return null;
+            }
+            if (existing != REMOVED && t.keys[slot] == key) {
+                t.values.set(slot, REMOVED);
+                size--;
+                return (V) existing;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        table = new Table(MIN_CAPACITY);
+        usedSlots = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Number of slots to walk when iterating; entries live in [0, capacity())
+    public int capacity() {
+        return table.keys.length;
+    }
+
+    // Value stored in the given slot, or null if the slot is empty
+    @SuppressWarnings("unchecked")
+    public V valueAt(int slot) {
+        Table t = table;
+        if (slot >= t.keys.length) {
+            return null;
+        }
+        Object value = t.values.get(slot);
+        return value == REMOVED ? null : (V) value;
+    }
+
+    // Key stored in the given slot; only meaningful when valueAt(slot) is non-null
+    public long keyAt(int slot) {
+        return table.keys[slot];
+    }
+
+    private Table rehash(int liveEntries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < liveEntries * 4) {
+            capacity <<= 1; // Leave room to grow before the next rehash
+        }
+        Table old = table;
+        Table resized = new Table(capacity);
+        for (int slot = 0; slot < old.keys.length; slot++) {
+            Object value = old.values.get(slot);
+            if (value != null && value != REMOVED) {
+                insertNew(resized, old.keys[slot], value);
+            }
+        }
+        usedSlots = size;
+        table = resized;
+        return resized;
+    }
+
+    private static void insertNew(Table t, long key, Object value) {
+        int mask = t.keys.length - 1;
+        int slot = slotFor(t, key);
+        while (t.values.get(slot) != null) {
+            slot = (slot + 1) & mask;
+        }
+        t.keys[slot] = key;
+        t.values.set(slot, value); // Volatile write publishes the key to lock-free readers
+    }
+
+    private static int slotFor(Table t, long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> t.shift);
+    }
+}
@@ -0,0 +1,99 @@
+package minecraft_clone.world;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+import minecraft_clone.engine.MeshBuilder;
+import minecraft_clone.engine.MeshBuilderPool;
+import minecraft_clone.engine.VertexFormat;
+
+// CPU-side result of meshing some of a chunk's mesh parts, built on any thread and uploaded later on the GL thread.
+// Each builder holds the built parts back to back; part p is quads starts[p] until starts[p + 1].
+// Meshes are pooled like their builders, start arrays and occluder included, so steady-state meshing allocates nothing.
+public class ChunkMesh {
+    private static final ArrayBlockingQueue<ChunkMesh> FREE_MESHES = new ArrayBlockingQueue<>(64);
+
+    private Chunk chunk;
+    private MeshBuilderPool pool;
+    private int parts; // Bit mask of the parts built, see Chunk.MESH_PARTS
+    private MeshBuilder opaqueBuilder;
+    private final int[] opaqueStarts = new int[Chunk.MESH_PARTS + 1];
+    private MeshBuilder transparentBuilder;
+    private final int[] transparentStarts = new int[Chunk.MESH_PARTS + 1];
+    private long visibility; // See ChunkVisibility; only set when the interior part was built
+    private ChunkOccluder occluder = new ChunkOccluder(); // Likewise; traded for the chunk's old one when applied
+
+    private ChunkMesh() {
+    }
+
+    // Takes a mesh from the pool with a reset builder per layer
+    static ChunkMesh acquire(Chunk chunk, MeshBuilderPool pool, VertexFormat format, int parts) {
+        ChunkMesh mesh = FREE_MESHES.poll();
+        if (mesh == null) {
+            mesh = new ChunkMesh();
+        }
+        mesh.chunk = chunk;
+        mesh.pool = pool;
+        mesh.parts = parts;
+        mesh.opaqueBuilder = pool.acquire(format);
+        mesh.transparentBuilder = pool.acquire(format);
+        mesh.visibility = ChunkVisibility.ALL_CONNECTED;
+        return mesh;
+    }
+
+    public Chunk getChunk() {
+        return chunk;
+    }
+
+    int getParts() {
+        return parts;
+    }
+
+    MeshBuilder getOpaqueBuilder() {
+        return opaqueBuilder;
+    }
+
+    int[] getOpaqueStarts() {
+        return opaqueStarts;
+    }
+
+    MeshBuilder getTransparentBuilder() {
+        return transparentBuilder;
+    }
+
+    int[] getTransparentStarts() {
+        return transparentStarts;
+    }
+
+    long getVisibility() {
+        return visibility;
+    }
+
+    void setVisibility(long visibility) {
+        this.visibility = visibility;
+    }
+
+    ChunkOccluder getOccluder() {
+        return occluder;
+    }
+
+    // Hands the built occluder to the chunk and keeps the one it replaces to build into next time
+    ChunkOccluder swapOccluder(ChunkOccluder replaced) {
+        ChunkOccluder built = occluder;
+        occluder = replaced == ChunkOccluder.NONE ? new ChunkOccluder() : replaced; // Once per chunk
+        return built;
+    }
+
+    public long getSizeInBytes() {
+        return opaqueBuilder.getSizeInBytes() + transparentBuilder.getSizeInBytes();
+    }
+
+    // Returns the builders and the mesh to their pools; the mesh must not be used afterwards
+    public void release() {
+        pool.release(opaqueBuilder);
+        pool.release(transparentBuilder);
+        chunk = null;
+        opaqueBuilder = null;
+        transparentBuilder = null;
+        FREE_MESHES.offer(this);
+    }
+}
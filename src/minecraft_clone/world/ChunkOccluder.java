@@ -0,0 +1,89 @@
+package minecraft_clone.world;
+
+import java.util.Arrays;
+
+import org.joml.Vector3f;
+
+import minecraft_clone.render.OcclusionBuffer;
+
+// Conservative occlusion shape of a chunk, built at mesh time. The chunk is split into CELL x CELL block columns,
+// and each column keeps the height up to which every block in it is opaque from the bottom of the chunk: a solid
+// slab of terrain that nothing can be seen through. contentHeight bounds everything that is not air, so the chunk
+// can be tested as an occludee with a box no taller than what it actually draws.
+class ChunkOccluder {
+    private static final int CELL = 4; // In blocks
+    private static final int CELLS_PER_SIDE = Chunk.CHUNK_SIZE / CELL;
+    // Blocks are meshed centered on their coordinates, so a chunk's geometry starts half a block before its position
+    private static final float BLOCK_OFFSET = -0.5f;
+
+    static final ChunkOccluder NONE = new ChunkOccluder(Chunk.CHUNK_SIZE); // Never built into
+
+    private final byte[] solidHeights = new byte[CELLS_PER_SIDE * CELLS_PER_SIDE]; // Indexed by cellX + cellZ * CELLS_PER_SIDE
+    private int contentHeight;
+
+    ChunkOccluder() {
+        this(0);
+    }
+
+    private ChunkOccluder(int contentHeight) {
+        this.contentHeight = contentHeight;
+    }
+
+    // Rebuilds the shape in place, so occluders are reused from mesh to mesh instead of reallocated
+    void build(Chunk chunk) {
+        if (chunk.isEmpty()) {
+            Arrays.fill(solidHeights, (byte) 0);
+            contentHeight = 0;
+            return;
+        }
+        int contentHeight = 0;
+        for (int cellZ = 0; cellZ < CELLS_PER_SIDE; cellZ++) {
+            for (int cellX = 0; cellX < CELLS_PER_SIDE; cellX++) {
+                int cellHeight = Chunk.CHUNK_SIZE;
+                for (int z = cellZ * CELL; z < (cellZ + 1) * CELL; z++) {
+                    for (int x = cellX * CELL; x < (cellX + 1) * CELL; x++) {
+                        int solid = 0;
+                        int top = 0;
+                        for (int y = 0; y < Chunk.CHUNK_SIZE; y++) {
+                            BlockType type = chunk.getLocalBlock(x, y, z);
+                            boolean opaque = type != null && BlockRegistry.isOpaque(type);
+                            if (opaque && solid == y) {
+                                solid = y + 1;
+                            }
+                            if (type != null && type != BlockType.AIR) {
+                                top = y + 1;
+                            }
+                        }
+                        cellHeight = Math.min(cellHeight, solid);
+                        contentHeight = Math.max(contentHeight, top);
+                    }
+                }
+                solidHeights[cellX + cellZ * CELLS_PER_SIDE] = (byte) cellHeight;
+            }
+        }
+        this.contentHeight = contentHeight;
+    }
+
+    void addOccluders(OcclusionBuffer buffer, Vector3f chunkPosition) {
+        for (int cellZ = 0; cellZ < CELLS_PER_SIDE; cellZ++) {
+            for (int cellX = 0; cellX < CELLS_PER_SIDE; cellX++) {
+                int height = solidHeights[cellX + cellZ * CELLS_PER_SIDE];
+                if (height == 0) {
+                    continue;
+                }
+                float minX = chunkPosition.x + cellX * CELL + BLOCK_OFFSET;
+                float minY = chunkPosition.y + BLOCK_OFFSET;
+                float minZ = chunkPosition.z + cellZ * CELL + BLOCK_OFFSET;
+                buffer.addOccluderBox(minX, minY, minZ, minX + CELL, minY + height, minZ + CELL);
+            }
+        }
+    }
+
+    // True if the chunk's contents could still be seen past the occluders already in the buffer
+    boolean isVisible(OcclusionBuffer buffer, Vector3f chunkPosition) {
+        float minX = chunkPosition.x + BLOCK_OFFSET;
+        float minY = chunkPosition.y + BLOCK_OFFSET;
+        float minZ = chunkPosition.z + BLOCK_OFFSET;
+        return buffer.isBoxVisible(minX, minY, minZ, minX + Chunk.CHUNK_SIZE, minY + contentHeight, minZ + Chunk.CHUNK_SIZE);
+    }
+}
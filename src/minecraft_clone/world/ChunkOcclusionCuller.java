@@ -0,0 +1,98 @@
+package minecraft_clone.world;
+
+import java.util.Arrays;
+
+import org.joml.Vector3f;
+
+import minecraft_clone.render.CubeModel;
+
+// Cave culling: walks outward from the camera's chunk through neighbor links, only leaving a chunk through a face
+// that its ChunkVisibility connects to the face the walk came in by. The walk never steps back toward the camera
+// along an axis it has already moved along, and only enters chunks that passed the frustum test this frame, so
+// chunks sealed off by rock from every path the camera could see through are never reached.
+// Must run on the thread that owns the ChunkManager.
+class ChunkOcclusionCuller {
+    // Chunk neighbor directions (0: +x, 1: -x, 2: +z, 3: -z) as the chunk face they pass through
+    private static final int[] NEIGHBOR_FACES = {
+        CubeModel.FACE_RIGHT, CubeModel.FACE_LEFT, CubeModel.FACE_FRONT, CubeModel.FACE_BACK
+    };
+    private static final int[] OPPOSITE_FACES = {
+        CubeModel.FACE_BACK, CubeModel.FACE_FRONT, CubeModel.FACE_RIGHT, CubeModel.FACE_LEFT,
+        CubeModel.FACE_BOTTOM, CubeModel.FACE_TOP
+    };
+
+    private Chunk[] queue = new Chunk[256];
+    private int[] entryFaces = new int[256]; // Face each queued chunk was entered through
+    private int[] travelled = new int[256]; // Faces crossed on the way to each queued chunk, as a bit set
+    private int frame;
+
+    // Starts a new cull; chunks marked before the next call belong to this frame
+    int beginFrame() {
+        return ++frame;
+    }
+
+    void markInFrustum(Chunk chunk) {
+        chunk.setFrustumFrame(frame);
+    }
+
+    // Returns false when the walk cannot start, e.g. the camera is above or below the chunk layer,
+    // in which case every chunk in the frustum should be treated as reachable
+    boolean traverse(Chunk cameraChunk, Vector3f cameraPos) {
+        if (cameraChunk == null) {
+            return false;
+        }
+        float bottom = cameraChunk.getPosition().y;
+        if (cameraPos.y < bottom || cameraPos.y >= bottom + Chunk.CHUNK_SIZE) {
+            return false;
+        }
+
+        int head = 0;
+        int tail = 0;
+        cameraChunk.setReachedFrame(frame);
+        queue[tail] = cameraChunk;
+        entryFaces[tail] = -1;
+        travelled[tail] = 0;
+        tail++;
+        while (head < tail) {
+            Chunk chunk = queue[head];
+            int entryFace = entryFaces[head];
+            int path = travelled[head];
+            queue[head] = null;
+            head++;
+            long visibility = chunk.getVisibility();
+
+            for (int direction = 0; direction < NEIGHBOR_FACES.length; direction++) {
+                int face = NEIGHBOR_FACES[direction];
+                if ((path & (1 << OPPOSITE_FACES[face])) != 0) {
+                    continue; // Would turn back toward the camera
+                }
+                if (entryFace >= 0 && !ChunkVisibility.isConnected(visibility, entryFace, face)) {
+                    continue;
+                }
+                Chunk next = chunk.getNeighbor(direction);
+                if (next == null || next.getReachedFrame() == frame || next.getFrustumFrame() != frame) {
+                    continue;
+                }
+                next.setReachedFrame(frame);
+                if (tail == queue.length) {
+                    grow(queue.length * 2);
+                }
+                queue[tail] = next;
+                entryFaces[tail] = OPPOSITE_FACES[face];
+                travelled[tail] = path | 1 << face;
+                tail++;
+            }
+        }
+        return true;
+    }
+
+    boolean isReached(Chunk chunk) {
+        return chunk.getReachedFrame() == frame;
+    }
+
+    private void grow(int capacity) {
+        queue = Arrays.copyOf(queue, capacity);
+        entryFaces = Arrays.copyOf(entryFaces, capacity);
+        travelled = Arrays.copyOf(travelled, capacity);
+    }
+}
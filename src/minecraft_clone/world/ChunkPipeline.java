@@ -0,0 +1,363 @@
+package minecraft_clone.world;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+// Moves chunks through the ChunkStatus stages on the ChunkJobScheduler. Each chunk the pipeline knows about has a target
+// status, and is advanced one stage at a time once every chunk within that stage's neighbor radius has reached the
+// status before it. Missing neighbors are requested with just the status they need, so a requested area grows a
+// margin of partly generated chunks around it.
+// A running stage claims its chunk and every chunk within its radius, and no stage starts on a claimed chunk, so
+// stages may touch their neighbors' blocks without locking while independent chunks still run in parallel.
+// All bookkeeping happens on the thread that calls update(); workers only run stages and queue the results.
+class ChunkPipeline {
+    // Chunks beyond a requested area that the pipeline may pull in as neighbors: the sum of all stage radii
+    static final int MARGIN = totalRadius();
+    private static final int MAX_SIDE = 2 * maxRadius() + 1; // Widest neighborhood a stage claims
+
+    interface ChunkFactory {
+        Chunk create(int chunkX, int chunkZ);
+    }
+
+    private static final class Entry {
+        final Chunk chunk;
+        ChunkStatus target;
+        int claims; // Running stages that cover this chunk
+        boolean failed; // A stage threw; the chunk is left where it is until it is unloaded
+        boolean prefetched; // Only wanted ahead of the player so far, see ChunkPrefetcher
+        volatile boolean discarded; // Lets a queued stage skip its work
+        long[] solid; // Solid cells from NOISE, consumed by SURFACE
+
+        Entry(Chunk chunk, ChunkStatus target) {
+            this.chunk = chunk;
+            this.target = target;
+        }
+    }
+
+    private static final class Completion {
+        final Entry entry;
+        final ChunkStatus status;
+        final Entry[] claimed;
+        final RuntimeException error;
+        final boolean cancelled; // Dropped by the scheduler before it ran
+
+        Completion(Entry entry, ChunkStatus status, Entry[] claimed, RuntimeException error, boolean cancelled) {
+            this.entry = entry;
+            this.status = status;
+            this.claimed = claimed;
+            this.error = error;
+            this.cancelled = cancelled;
+        }
+    }
+
+    private final TerrainGenerator terrain;
+    private final TerrainDecorator decorator;
+    private final PendingBlockWrites pendingWrites = new PendingBlockWrites();
+    private final ChunkFactory factory;
+    private final Consumer<Chunk> readyListener; // Receives each chunk that reaches MESH_READY
+    private final ChunkMap<Entry> entries = new ChunkMap<>();
+    private final ConcurrentLinkedQueue<Completion> completions = new ConcurrentLinkedQueue<>();
+    // Collected while walking entries, split by whether the chunk asking for them was prefetched
+    private final ChunkMap<ChunkStatus> neighborRequests = new ChunkMap<>();
+    private final ChunkMap<ChunkStatus> prefetchNeighborRequests = new ChunkMap<>();
+    // Neighborhood being claimed; only a successful claim copies it out, as most attempts wait on a neighbor
+    private final Entry[] claimScratch = new Entry[MAX_SIDE * MAX_SIDE];
+    private int running;
+    // Chunks kept around the player, see setWindow(); unbounded until it is first called
+    private int windowX, windowZ;
+    private int windowDistance = Integer.MAX_VALUE;
+    private int windowPrefetchDistance = Integer.MAX_VALUE;
+
+    ChunkPipeline(TerrainGenerator terrain, TerrainDecorator decorator, ChunkFactory factory, Consumer<Chunk> readyListener) {
+        this.terrain = terrain;
+        this.decorator = decorator;
+        this.factory = factory;
+        this.readyListener = readyListener;
+    }
+
+    // Asks for a chunk to reach at least the given status; a chunk already further along is left as it is.
+    // A prefetched chunk requested this way is no longer a prefetch.
+    void request(int chunkX, int chunkZ, ChunkStatus target) {
+        require(ChunkMap.key(chunkX, chunkZ), target, false).prefetched = false;
+    }
+
+    // Like request(), for a chunk the player may reach soon. Prefetched chunks' stages queue behind everything else,
+    // and they are kept out to a farther distance; a chunk that is already wanted stays a normal request.
+    void prefetch(int chunkX, int chunkZ, ChunkStatus target) {
+        require(ChunkMap.key(chunkX, chunkZ), target, true);
+    }
+
+    private Entry require(long chunkKey, ChunkStatus target, boolean prefetched) {
+        Entry entry = entries.get(chunkKey);
+        if (entry == null) {
+            entry = new Entry(factory.create(ChunkMap.keyX(chunkKey), ChunkMap.keyZ(chunkKey)), target);
+            entry.prefetched = prefetched;
+            entries.put(chunkKey, entry);
+        } else {
+            entry.target = ChunkStatus.max(entry.target, target);
+        }
+        return entry;
+    }
+
+    boolean contains(long chunkKey) {
+        return entries.containsKey(chunkKey);
+    }
+
+    boolean isPrefetched(long chunkKey) {
+        Entry entry = entries.get(chunkKey);
+        return entry != null && entry.prefetched;
+    }
+
+    // Applies finished stages, then starts every stage whose dependencies are met; returns the chunks made ready
+    int update(ChunkJobScheduler scheduler) {
+        int ready = drainCompletions();
+        scheduleStages(scheduler);
+        return ready;
+    }
+
+    // Runs stages on the calling thread until nothing more can start, for loading the area around the spawn
+    int runUntilIdle() {
+        int ready = drainCompletions();
+        while (scheduleStages(null) > 0) {
+            ready += drainCompletions();
+        }
+        return ready;
+    }
+
+    // Forgets a chunk, e.g. once its owner has unloaded it. A stage still running on it finishes and is ignored.
+    void discard(long chunkKey) {
+        Entry entry = entries.remove(chunkKey);
+        if (entry != null) {
+            entry.discarded = true;
+        }
+        pendingWrites.discard(chunkKey, entries::containsKey);
+    }
+
+    // Keeps chunks within distance of the center, or within prefetchDistance for prefetched chunks, and forgets the
+    // rest. Neighbors outside this window are never pulled in. When only the center moved, just the strips that
+    // left the window are visited; otherwise every chunk is checked.
+    void setWindow(int centerX, int centerZ, int distance, int prefetchDistance) {
+        int oldX = windowX;
+        int oldZ = windowZ;
+        boolean resized = distance != windowDistance || prefetchDistance != windowPrefetchDistance;
+        windowX = centerX;
+        windowZ = centerZ;
+        windowDistance = distance;
+        windowPrefetchDistance = prefetchDistance;
+        if (resized) {
+            for (int slot = 0, capacity = entries.capacity(); slot < capacity; slot++) {
+                Entry entry = entries.valueAt(slot);
+                if (entry != null && !isInWindow(entries.keyAt(slot), entry.prefetched)) {
+                    discard(entries.keyAt(slot));
+                }
+            }
+            return;
+        }
+        ChunkSquare.forEachOutside(oldX, oldZ, centerX, centerZ, distance, chunkKey -> discardIf(chunkKey, false));
+        ChunkSquare.forEachOutside(oldX, oldZ, centerX, centerZ, prefetchDistance, chunkKey -> discardIf(chunkKey, true));
+    }
+
+    private void discardIf(long chunkKey, boolean prefetched) {
+        Entry entry = entries.get(chunkKey);
+        if (entry != null && entry.prefetched == prefetched) {
+            discard(chunkKey);
+        }
+    }
+
+    private boolean isInWindow(long chunkKey, boolean prefetched) {
+        return ChunkSquare.distance(chunkKey, windowX, windowZ) <= (prefetched ? windowPrefetchDistance : windowDistance);
+    }
+
+    void clear() {
+        entries.clear();
+        completions.clear();
+        pendingWrites.clear();
+        running = 0;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    int getRunningCount() {
+        return running;
+    }
+
+    // Chunks with deferred decoration writes waiting for them, or that may still receive some
+    int getPendingWriteTargets() {
+        return pendingWrites.getMailboxCount();
+    }
+
+    private int drainCompletions() {
+        int ready = 0;
+        Completion completion;
+        while ((completion = completions.poll()) != null) {
+            running--;
+            for (Entry claimed : completion.claimed) {
+                claimed.claims--;
+            }
+            Entry entry = completion.entry;
+            Chunk chunk = entry.chunk;
+            if (completion.cancelled || entries.get(chunk.getChunkX(), chunk.getChunkZ()) != entry) {
+                continue; // Never ran, or discarded while it ran; a chunk still wanted is scheduled again
+            }
+            if (completion.error != null) {
+                entry.failed = true;
+                System.err.println("Error generating chunk " + chunk.getChunkX() + "," + chunk.getChunkZ()
+                        + " (" + completion.status + "): " + completion.error.getMessage());
+                continue;
+            }
+            chunk.setStatus(completion.status);
+            if (completion.status == ChunkStatus.MESH_READY) {
+                readyListener.accept(chunk);
+                ready++;
+            }
+        }
+        return ready;
+    }
+
+    // Returns the number of stages started. Without a scheduler, each stage runs right away on this thread.
+    private int scheduleStages(ChunkJobScheduler scheduler) {
+        int started = 0;
+        for (int slot = 0, capacity = entries.capacity(); slot < capacity; slot++) {
+            Entry entry = entries.valueAt(slot);
+            if (entry == null || entry.claims > 0 || entry.failed) {
+                continue;
+            }
+            ChunkStatus status = entry.chunk.getStatus();
+            if (status.isAtLeast(entry.target)) {
+                continue;
+            }
+            ChunkStatus next = status.next();
+            Entry[] claimed = claimNeighborhood(entry, next);
+            if (claimed == null) {
+                continue;
+            }
+            if (next == ChunkStatus.DECORATED) {
+                pendingWrites.prepare(entry.chunk.getChunkX(), entry.chunk.getChunkZ());
+            }
+            running++;
+            started++;
+            if (scheduler == null) {
+                runStage(entry, next, claimed);
+            } else {
+                scheduler.submit(entry.chunk.getChunkX(), entry.chunk.getChunkZ(), entry.prefetched, () -> runStage(entry, next, claimed),
+                        () -> completions.add(new Completion(entry, next, claimed, null, true)));
+            }
+        }
+
+        // New chunks are only added once the walk over entries is done
+        addNeighborRequests(neighborRequests, false);
+        addNeighborRequests(prefetchNeighborRequests, true);
+        return started;
+    }
+
+    private void addNeighborRequests(ChunkMap<ChunkStatus> requests, boolean prefetched) {
+        for (int slot = 0, capacity = requests.capacity(); slot < capacity; slot++) {
+            ChunkStatus target = requests.valueAt(slot);
+            if (target != null && isInWindow(requests.keyAt(slot), prefetched)) {
+                require(requests.keyAt(slot), target, prefetched);
+            }
+        }
+        requests.clear();
+    }
+
+    // Claims the chunk and its neighbors for the stage if they are all free and far enough along, or returns null.
+    // Neighbors that are missing or behind get their targets raised so a later update can start the stage, and
+    // prefetched neighbors of a normal chunk stop being prefetches.
+    private Entry[] claimNeighborhood(Entry entry, ChunkStatus stage) {
+        int radius = stage.getNeighborRadius();
+        ChunkStatus required = stage.previous();
+        int side = 2 * radius + 1;
+        int chunkX = entry.chunk.getChunkX();
+        int chunkZ = entry.chunk.getChunkZ();
+        boolean ready = true;
+        int count = 0;
+        for (int dz = -radius; dz <= radius; dz++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                Entry neighbor = (dx == 0 && dz == 0) ? entry : entries.get(chunkX + dx, chunkZ + dz);
+                if (neighbor == null) {
+                    ChunkMap<ChunkStatus> requests = entry.prefetched ? prefetchNeighborRequests : neighborRequests;
+                    long chunkKey = ChunkMap.key(chunkX + dx, chunkZ + dz);
+                    ChunkStatus requested = requests.get(chunkKey);
+                    requests.put(chunkKey, requested == null ? required : ChunkStatus.max(requested, required));
+                    ready = false;
+                    continue;
+                }
+                neighbor.target = ChunkStatus.max(neighbor.target, required);
+                if (!entry.prefetched && neighbor.prefetched && isInWindow(ChunkMap.key(chunkX + dx, chunkZ + dz), false)) {
+                    neighbor.prefetched = false; // Normal loading depends on it now
+                }
+                if (neighbor.claims > 0 || neighbor.failed || !neighbor.chunk.getStatus().isAtLeast(required)) {
+                    ready = false;
+                }
+                claimScratch[count++] = neighbor;
+            }
+        }
+        if (!ready) {
+            Arrays.fill(claimScratch, 0, count, null);
+            return null;
+        }
+        Entry[] claimed = Arrays.copyOf(claimScratch, side * side);
+        Arrays.fill(claimScratch, 0, count, null);
+        for (Entry neighbor : claimed) {
+            neighbor.claims++;
+        }
+        return claimed;
+    }
+
+    // Runs on a scheduler worker, or inline from runUntilIdle
+    private void runStage(Entry entry, ChunkStatus stage, Entry[] claimed) {
+        Chunk chunk = entry.chunk;
+        if (entry.discarded) {
+            completions.add(new Completion(entry, stage, claimed, null, true));
+            return;
+        }
+        try {
+            switch (stage) {
+                case NOISE:
+                    entry.solid = terrain.generateSolid(chunk.getChunkX(), chunk.getChunkZ());
+                    break;
+                case SURFACE:
+                    terrain.layerSurface(chunk.getBlockStorage(), entry.solid, chunk.getChunkX(), chunk.getChunkZ());
+                    entry.solid = null;
+                    break;
+                case DECORATED:
+                    PendingBlockWrites.Batch[] batches = decorator.decorate(chunk.getBlockStorage(), chunk.getChunkX(), chunk.getChunkZ());
+                    pendingWrites.post(chunk.getChunkX(), chunk.getChunkZ(), batches);
+                    // discard() marks the entry before clearing its batches, so either it removed these or the mark shows here
+                    if (entry.discarded) {
+                        pendingWrites.retract(chunk.getChunkX(), chunk.getChunkZ(), batches);
+                    }
+                    break;
+                case LIT:
+                    // Every neighbor is decorated by now, so nothing more can be posted for this chunk
+                    pendingWrites.apply(chunk.getBlockStorage(), chunk.getChunkX(), chunk.getChunkZ());
+                    break;
+                default:
+                    // There is no lighting yet, and MESH_READY only marks the dependency
+                    break;
+            }
+            completions.add(new Completion(entry, stage, claimed, null, false));
+        } catch (RuntimeException e) {
+            completions.add(new Completion(entry, stage, claimed, e, false));
+        }
+    }
+
+    private static int maxRadius() {
+        int radius = 0;
+        for (ChunkStatus status : ChunkStatus.values()) {
+            radius = Math.max(radius, status.getNeighborRadius());
+        }
+        return radius;
+    }
+
+    private static int totalRadius() {
+        int radius = 0;
+        for (ChunkStatus status : ChunkStatus.values()) {
+            radius += status.getNeighborRadius();
+        }
+        return radius;
+    }
+}
@@ -0,0 +1,145 @@
+package minecraft_clone.world;
+
+import org.joml.Vector3f;
+
+// Generates chunks ahead of the player before they come into range, so fast movement does not outrun generation.
+// The player's velocity over the last few updates is extrapolated LOOKAHEAD_SECONDS ahead, and the chunks in a cone
+// along it, from just past the render distance out to that point, are prefetched through the pipeline up to LIT.
+// A player standing still gets a short cone along the view direction instead. A prefetch counts as a hit once normal
+// loading asks for the chunk, and as wasted if it is dropped first: because the trajectory turned away from it,
+// or because the pipeline discarded it.
+// Must run on the thread that owns the ChunkManager.
+class ChunkPrefetcher {
+    static final int MAX_DEPTH = 6; // Chunks past the render distance
+    private static final int IDLE_DEPTH = 2; // Along the view direction when the player is not moving
+    private static final float LOOKAHEAD_SECONDS = 3.0f;
+    private static final float MIN_SPEED = 2.0f; // Blocks per second; anything slower is standing still
+    private static final float CONE_COS = 0.866f; // 30 degree half-angle for new prefetches
+    private static final float KEEP_COS = 0.707f; // Existing prefetches are kept out to 45 degrees
+    private static final int HISTORY = 8; // Position samples, one per update
+
+    private final ChunkPipeline pipeline;
+    private final float[] historyX = new float[HISTORY];
+    private final float[] historyZ = new float[HISTORY];
+    private final long[] historyNanos = new long[HISTORY];
+    private int historyCount;
+    private int historyNext;
+    private final ChunkMap<Boolean> tracked = new ChunkMap<>(); // Prefetched chunks not yet counted as hit or waste
+    private long issued;
+    private long hits;
+    private long wasted;
+
+    // Current cone, in chunk units
+    private float originX, originZ;
+    private float directionX, directionZ;
+
+    ChunkPrefetcher(ChunkPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    void update(Vector3f position, Vector3f forward, int renderDistance) {
+        long now = System.nanoTime();
+        int depth = aim(position, forward, now);
+        originX = position.x / Chunk.CHUNK_SIZE;
+        originZ = position.z / Chunk.CHUNK_SIZE;
+
+        // Settle what was prefetched earlier; removing while walking slots is safe. Chunks that normal loading may
+        // already need as neighbors are never discarded here, even if the pipeline has not cleared their flag yet.
+        float keepReach = renderDistance + depth + 1;
+        int playerChunkX = (int) Math.floor(originX);
+        int playerChunkZ = (int) Math.floor(originZ);
+        for (int slot = 0, capacity = tracked.capacity(); slot < capacity; slot++) {
+            if (tracked.valueAt(slot) == null) {
+                continue;
+            }
+            long chunkKey = tracked.keyAt(slot);
+            if (!pipeline.contains(chunkKey)) {
+                wasted++;
+                tracked.remove(chunkKey);
+            } else if (!pipeline.isPrefetched(chunkKey)) {
+                hits++;
+                tracked.remove(chunkKey);
+            } else if ((depth == 0 || !isInCone(chunkKey, KEEP_COS, keepReach))
+                    && ChunkSquare.distance(chunkKey, playerChunkX, playerChunkZ) > renderDistance + ChunkPipeline.MARGIN) {
+                pipeline.discard(chunkKey);
+                wasted++;
+                tracked.remove(chunkKey);
+            }
+        }
+        if (depth == 0) {
+            return;
+        }
+
+        int reach = renderDistance + depth;
+        for (int x = playerChunkX - reach; x <= playerChunkX + reach; x++) {
+            for (int z = playerChunkZ - reach; z <= playerChunkZ + reach; z++) {
+                if (Math.max(Math.abs(x - playerChunkX), Math.abs(z - playerChunkZ)) <= renderDistance) {
+                    continue; // Normal loading covers these
+                }
+                long chunkKey = ChunkMap.key(x, z);
+                if (isInCone(chunkKey, CONE_COS, reach) && !pipeline.contains(chunkKey)) {
+                    pipeline.prefetch(x, z, ChunkStatus.LIT);
+                    tracked.put(chunkKey, Boolean.TRUE);
+                    issued++;
+                }
+            }
+        }
+    }
+
+    // Records the position and sets the cone direction; returns how many chunks past the render distance it reaches
+    private int aim(Vector3f position, Vector3f forward, long now) {
+        int oldest = historyCount < HISTORY ? 0 : historyNext;
+        historyX[historyNext] = position.x;
+        historyZ[historyNext] = position.z;
+        historyNanos[historyNext] = now;
+        historyNext = (historyNext + 1) % HISTORY;
+        historyCount = Math.min(historyCount + 1, HISTORY);
+
+        float seconds = (now - historyNanos[oldest]) / 1.0e9f;
+        if (historyCount > 1 && seconds > 0.0f) {
+            float velocityX = (position.x - historyX[oldest]) / seconds;
+            float velocityZ = (position.z - historyZ[oldest]) / seconds;
+            float speed = (float) Math.sqrt(velocityX * velocityX + velocityZ * velocityZ);
+            if (speed >= MIN_SPEED) {
+                directionX = velocityX / speed;
+                directionZ = velocityZ / speed;
+                int depth = (int) Math.ceil(speed * LOOKAHEAD_SECONDS / Chunk.CHUNK_SIZE);
+                return Math.min(Math.max(depth, 1), MAX_DEPTH);
+            }
+        }
+        float length = (float) Math.sqrt(forward.x * forward.x + forward.z * forward.z);
+        if (length < 1.0e-4f) {
+            return 0; // Looking straight up or down
+        }
+        directionX = forward.x / length;
+        directionZ = forward.z / length;
+        return IDLE_DEPTH;
+    }
+
+    private boolean isInCone(long chunkKey, float minCos, float reach) {
+        float dx = ChunkMap.keyX(chunkKey) + 0.5f - originX;
+        float dz = ChunkMap.keyZ(chunkKey) + 0.5f - originZ;
+        float distance = (float) Math.sqrt(dx * dx + dz * dz);
+        return distance <= reach + 0.5f && dx * directionX + dz * directionZ >= minCos * distance;
+    }
+
+    void clear() {
+        tracked.clear();
+        historyCount = 0;
+        historyNext = 0;
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getWasted() {
+        return wasted;
+    }
+
+    String getStats() {
+        long settled = hits + wasted;
+        return String.format("Prefetch - Issued: %d, Pending: %d, Used: %d, Discarded: %d (%.1f%% used)",
+                issued, tracked.size(), hits, wasted, settled == 0 ? 0.0f : hits * 100.0f / settled);
+    }
+}
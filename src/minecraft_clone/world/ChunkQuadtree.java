@@ -0,0 +1,224 @@
+package minecraft_clone.world;
+
+import org.joml.Vector3f;
+
+import minecraft_clone.render.Frustum;
+
+// Region hierarchy over loaded chunk columns, updated as chunks load and unload.
+// Leaf cells cover LEAF_SIZE x LEAF_SIZE chunks and hold the chunks themselves; each level up doubles the
+// cell size, and cells of the top level are the roots. Every cell keeps its chunk count and vertical extent,
+// so culling can reject a whole region with one frustum test and only descend into regions that may be seen.
+public class ChunkQuadtree {
+    private static final int LEAF_SHIFT = 2;
+    private static final int LEAF_SIZE = 1 << LEAF_SHIFT; // In chunks
+    public static final int LEVELS = 5; // Level 0 is the leaves; roots at level 4 cover 64x64 chunks
+
+    private static final class Node {
+        final Node parent;
+        final int level;
+        final int cellX, cellZ; // In cells of this level
+        final Node[] children; // 2x2, indexed by (x & 1) | (z & 1) << 1; null at the leaves
+        final Chunk[] chunks; // LEAF_SIZE x LEAF_SIZE, leaves only
+        int chunkCount;
+        float minY, maxY;
+
+        Node(Node parent, int level, int cellX, int cellZ) {
+            this.parent = parent;
+            this.level = level;
+            this.cellX = cellX;
+            this.cellZ = cellZ;
+            this.children = level > 0 ? new Node[4] : null;
+            this.chunks = level == 0 ? new Chunk[LEAF_SIZE * LEAF_SIZE] : null;
+        }
+
+        float cellSize() {
+            return (float) (LEAF_SIZE << level) * Chunk.CHUNK_SIZE;
+        }
+    }
+
+    private final ChunkMap<Node> roots = new ChunkMap<>(); // Keyed by root cell coordinates
+    private int size;
+
+    // Per-cull inputs and results
+    private final Vector3f nodeMin = new Vector3f();
+    private final Vector3f nodeMax = new Vector3f();
+    private Frustum frustum;
+    private float cameraX, cameraY, cameraZ;
+    private float maxDistanceSquared;
+    private final long[] visits = new long[LEVELS];
+
+    public void insert(Chunk chunk) {
+        int chunkX = chunk.getChunkX();
+        int chunkZ = chunk.getChunkZ();
+        int top = LEVELS - 1;
+        int rootX = chunkX >> (LEAF_SHIFT + top);
+        int rootZ = chunkZ >> (LEAF_SHIFT + top);
+        long rootKey = ChunkMap.key(rootX, rootZ);
+        Node node = roots.get(rootKey);
+        if (node == null) {
+            node = new Node(null, top, rootX, rootZ);
+            roots.put(rootKey, node);
+        }
+        while (node.level > 0) {
+            int childLevel = node.level - 1;
+            int childX = chunkX >> (LEAF_SHIFT + childLevel);
+            int childZ = chunkZ >> (LEAF_SHIFT + childLevel);
+            int childIndex = (childX & 1) | (childZ & 1) << 1;
+            Node child = node.children[childIndex];
+            if (child == null) {
+                child = new Node(node, childLevel, childX, childZ);
+                node.children[childIndex] = child;
+            }
+            node = child;
+        }
+        int slot = (chunkX & (LEAF_SIZE - 1)) | (chunkZ & (LEAF_SIZE - 1)) << LEAF_SHIFT;
+        if (node.chunks[slot] != null) {
+            remove(node.chunks[slot]);
+            insert(chunk);
+            return;
+        }
+        node.chunks[slot] = chunk;
+        size++;
+
+        float chunkMinY = chunk.getPosition().y;
+        float chunkMaxY = chunkMinY + Chunk.CHUNK_SIZE;
+        for (; node != null; node = node.parent) {
+            if (node.chunkCount == 0) {
+                node.minY = chunkMinY;
+                node.maxY = chunkMaxY;
+            } else {
+                node.minY = Math.min(node.minY, chunkMinY);
+                node.maxY = Math.max(node.maxY, chunkMaxY);
+            }
+            node.chunkCount++;
+        }
+    }
+
+    public void remove(Chunk chunk) {
+        Node node = findLeaf(chunk.getChunkX(), chunk.getChunkZ());
+        if (node == null) {
+            return;
+        }
+        int slot = (chunk.getChunkX() & (LEAF_SIZE - 1)) | (chunk.getChunkZ() & (LEAF_SIZE - 1)) << LEAF_SHIFT;
+        if (node.chunks[slot] != chunk) {
+            return;
+        }
+        node.chunks[slot] = null;
+        size--;
+
+        // Walk back up, dropping cells that became empty and shrinking the vertical extent of the rest
+        for (; node != null; node = node.parent) {
+            node.chunkCount--;
+            if (node.chunkCount == 0) {
+                if (node.parent != null) {
+                    node.parent.children[(node.cellX & 1) | (node.cellZ & 1) << 1] = null;
+                } else {
+                    roots.remove(ChunkMap.key(node.cellX, node.cellZ));
+                }
+            } else {
+                recomputeExtent(node);
+            }
+        }
+    }
+
+    public void clear() {
+        roots.clear();
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Hands the culler every chunk in a region that is within maxDistance and touches the frustum.
+    // Those chunks still need their own test; whole regions that fail are skipped without looking inside.
+    public void collectCandidates(Frustum frustum, Vector3f cameraPos, float maxDistance, ChunkCuller culler) {
+        this.frustum = frustum;
+        cameraX = cameraPos.x;
+        cameraY = cameraPos.y;
+        cameraZ = cameraPos.z;
+        maxDistanceSquared = maxDistance * maxDistance;
+        for (int level = 0; level < LEVELS; level++) {
+            visits[level] = 0;
+        }
+        for (int slot = 0, capacity = roots.capacity(); slot < capacity; slot++) {
+            Node root = roots.valueAt(slot);
+            if (root != null) {
+                visit(root, culler);
+            }
+        }
+        this.frustum = null;
+    }
+
+    private void visit(Node node, ChunkCuller culler) {
+        visits[node.level]++;
+        float cellSize = node.cellSize();
+        float minX = node.cellX * cellSize;
+        float minZ = node.cellZ * cellSize;
+        // A chunk's center lies inside its cell, so a cell entirely out of range holds no chunk in range
+        float dx = Math.max(Math.max(minX - cameraX, cameraX - (minX + cellSize)), 0.0f);
+        float dy = Math.max(Math.max(node.minY - cameraY, cameraY - node.maxY), 0.0f);
+        float dz = Math.max(Math.max(minZ - cameraZ, cameraZ - (minZ + cellSize)), 0.0f);
+        if (dx * dx + dy * dy + dz * dz > maxDistanceSquared) {
+            return;
+        }
+        nodeMin.set(minX, node.minY, minZ);
+        nodeMax.set(minX + cellSize, node.maxY, minZ + cellSize);
+        if (!frustum.isAABBInside(nodeMin, nodeMax)) {
+            return;
+        }
+
+        if (node.level == 0) {
+            for (int i = 0; i < node.chunks.length; i++) {
+                if (node.chunks[i] != null) {
+                    culler.addCandidate(node.chunks[i]);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (node.children[i] != null) {
+                visit(node.children[i], culler);
+            }
+        }
+    }
+
+    private Node findLeaf(int chunkX, int chunkZ) {
+        int top = LEVELS - 1;
+        Node node = roots.get(chunkX >> (LEAF_SHIFT + top), chunkZ >> (LEAF_SHIFT + top));
+        while (node != null && node.level > 0) {
+            int childLevel = node.level - 1;
+            int childX = chunkX >> (LEAF_SHIFT + childLevel);
+            int childZ = chunkZ >> (LEAF_SHIFT + childLevel);
+            node = node.children[(childX & 1) | (childZ & 1) << 1];
+        }
+        return node;
+    }
+
+    private static void recomputeExtent(Node node) {
+        float minY = Float.POSITIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        if (node.level == 0) {
+            for (Chunk chunk : node.chunks) {
+                if (chunk != null) {
+                    minY = Math.min(minY, chunk.getPosition().y);
+                    maxY = Math.max(maxY, chunk.getPosition().y + Chunk.CHUNK_SIZE);
+                }
+            }
+        } else {
+            for (Node child : node.children) {
+                if (child != null) {
+                    minY = Math.min(minY, child.minY);
+                    maxY = Math.max(maxY, child.maxY);
+                }
+            }
+        }
+        node.minY = minY;
+        node.maxY = maxY;
+    }
+
+    // Cells of the given level (0 = leaves) visited by the last cull
+    public long getVisitCount(int level) {
+        return visits[level];
+    }
+}
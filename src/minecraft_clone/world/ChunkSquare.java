@@ -0,0 +1,33 @@
+package minecraft_clone.world;
+
+import java.util.function.LongConsumer;
+
+// Square areas of chunks around a center, as used for loading and unloading (Chebyshev distance).
+final class ChunkSquare {
+    private ChunkSquare() {
+    }
+
+    // Visits every chunk within radius of the center that is not within radius of the other center: the strip that
+    // enters or leaves the square when it moves. That is O(radius) chunks per chunk moved, instead of the whole square.
+    static void forEachOutside(int centerX, int centerZ, int otherX, int otherZ, int radius, LongConsumer action) {
+        for (int x = centerX - radius; x <= centerX + radius; x++) {
+            if (Math.abs(x - otherX) > radius) {
+                for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+                    action.accept(ChunkMap.key(x, z));
+                }
+                continue;
+            }
+            // Column shared with the other square: only its ends stick out
+            for (int z = centerZ - radius; z <= Math.min(centerZ + radius, otherZ - radius - 1); z++) {
+                action.accept(ChunkMap.key(x, z));
+            }
+            for (int z = Math.max(centerZ - radius, otherZ + radius + 1); z <= centerZ + radius; z++) {
+                action.accept(ChunkMap.key(x, z));
+            }
+        }
+    }
+
+    static int distance(long chunkKey, int centerX, int centerZ) {
+        return Math.max(Math.abs(ChunkMap.keyX(chunkKey) - centerX), Math.abs(ChunkMap.keyZ(chunkKey) - centerZ));
+    }
+}
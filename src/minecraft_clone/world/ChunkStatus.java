@@ -0,0 +1,43 @@
+package minecraft_clone.world;
+
+// Generation stages of a chunk, in the order it passes through them. Reaching a status needs every chunk within
+// its neighbor radius (diagonals included) to have reached the status before it, so a stage can read and write
+// its neighbors' blocks knowing they are far enough along.
+public enum ChunkStatus {
+    EMPTY(0),      // Created, no blocks yet
+    NOISE(0),      // Solid and air cells decided by the terrain shape
+    SURFACE(0),    // Solid cells layered into grass, dirt and stone
+    DECORATED(0),  // Own features placed; their writes into neighbors wait in PendingBlockWrites
+    LIT(1),        // Neighbors' pending writes applied; lighting is a placeholder, nothing is lit yet
+    MESH_READY(1); // Every neighbor past LIT too, so the chunk can be meshed and drawn
+
+    private static final ChunkStatus[] VALUES = values();
+
+    private final int neighborRadius; // In chunks
+
+    ChunkStatus(int neighborRadius) {
+        this.neighborRadius = neighborRadius;
+    }
+
+    public int getNeighborRadius() {
+        return neighborRadius;
+    }
+
+    public boolean isAtLeast(ChunkStatus other) {
+        return ordinal() >= other.ordinal();
+    }
+
+    // Null for MESH_READY
+    public ChunkStatus next() {
+        return ordinal() + 1 < VALUES.length ? VALUES[ordinal() + 1] : null;
+    }
+
+    // Null for EMPTY
+    public ChunkStatus previous() {
+        return ordinal() > 0 ? VALUES[ordinal() - 1] : null;
+    }
+
+    public static ChunkStatus max(ChunkStatus a, ChunkStatus b) {
+        return a.isAtLeast(b) ? a : b;
+    }
+}
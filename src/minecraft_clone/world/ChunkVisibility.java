@@ -0,0 +1,119 @@
+package minecraft_clone.world;
+
+import minecraft_clone.render.CubeModel;
+
+// Works out which faces of a chunk can see each other through it. Non-opaque cells are flood-filled, and every
+// connected region links all the chunk faces it touches. The result is a 6x6 bit matrix packed into a long,
+// bit (from * FACE_COUNT + to), with faces numbered as in CubeModel.
+class ChunkVisibility {
+    static final long ALL_CONNECTED = (1L << (CubeModel.FACE_COUNT * CubeModel.FACE_COUNT)) - 1;
+
+    private static final int SIZE = Chunk.CHUNK_SIZE;
+    private static final int CELLS = SIZE * SIZE * SIZE; // Cell index: x | z << 4 | y << 8
+    private static final ThreadLocal<ChunkVisibility> INSTANCE = ThreadLocal.withInitial(ChunkVisibility::new);
+
+    // Scratch state reused between chunks processed on the same thread
+    private final long[] visited = new long[CELLS / Long.SIZE];
+    private final int[] queue = new int[CELLS];
+
+    private ChunkVisibility() {
+    }
+
+    static ChunkVisibility forCurrentThread() {
+        return INSTANCE.get();
+    }
+
+    static boolean isConnected(long visibility, int fromFace, int toFace) {
+        return (visibility & (1L << (fromFace * CubeModel.FACE_COUNT + toFace))) != 0;
+    }
+
+    long compute(Chunk chunk) {
+        if (chunk.isEmpty()) {
+            return ALL_CONNECTED;
+        }
+        // Opaque cells start out visited so the fill only walks open space
+        for (int cell = 0; cell < CELLS; cell++) {
+            BlockType type = chunk.getLocalBlock(cell & 15, cell >> 8, (cell >> 4) & 15);
+            if (type != null && BlockRegistry.isOpaque(type)) {
+                visited[cell >> 6] |= 1L << cell;
+            } else {
+                visited[cell >> 6] &= ~(1L << cell);
+            }
+        }
+
+        long visibility = 0;
+        for (int cell = 0; cell < CELLS && visibility != ALL_CONNECTED; cell++) {
+            if ((visited[cell >> 6] & (1L << cell)) == 0) {
+                visibility |= connect(fill(cell));
+            }
+        }
+        return visibility;
+    }
+
+    // Flood-fills the open region containing start and returns the chunk faces it reaches as a bit set
+    private int fill(int start) {
+        int head = 0;
+        int tail = 0;
+        visited[start >> 6] |= 1L << start;
+        queue[tail++] = start;
+        int faces = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell & 15;
+            int z = (cell >> 4) & 15;
+            int y = cell >> 8;
+            if (x == 0) {
+                faces |= 1 << CubeModel.FACE_LEFT;
+            } else {
+                tail = enqueue(cell - 1, tail);
+            }
+            if (x == SIZE - 1) {
+                faces |= 1 << CubeModel.FACE_RIGHT;
+            } else {
+                tail = enqueue(cell + 1, tail);
+            }
+            if (z == 0) {
+                faces |= 1 << CubeModel.FACE_BACK;
+            } else {
+                tail = enqueue(cell - SIZE, tail);
+            }
+            if (z == SIZE - 1) {
+                faces |= 1 << CubeModel.FACE_FRONT;
+            } else {
+                tail = enqueue(cell + SIZE, tail);
+            }
+            if (y == 0) {
+                faces |= 1 << CubeModel.FACE_BOTTOM;
+            } else {
+                tail = enqueue(cell - SIZE * SIZE, tail);
+            }
+            if (y == SIZE - 1) {
+                faces |= 1 << CubeModel.FACE_TOP;
+            } else {
+                tail = enqueue(cell + SIZE * SIZE, tail);
+            }
+        }
+        return faces;
+    }
+
+    private int enqueue(int cell, int tail) {
+        long bit = 1L << cell;
+        if ((visited[cell >> 6] & bit) != 0) {
+            return tail;
+        }
+        visited[cell >> 6] |= bit;
+        queue[tail] = cell;
+        return tail + 1;
+    }
+
+    // Every face of the set can see every other face of it
+    private static long connect(int faces) {
+        long visibility = 0;
+        for (int from = 0; from < CubeModel.FACE_COUNT; from++) {
+            if ((faces & (1 << from)) != 0) {
+                visibility |= (long) faces << (from * CubeModel.FACE_COUNT);
+            }
+        }
+        return visibility;
+    }
+}
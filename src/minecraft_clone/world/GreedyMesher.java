@@ -0,0 +1,141 @@
+package minecraft_clone.world;
+
+import minecraft_clone.engine.MeshBuilder;
+import minecraft_clone.render.CubeModel;
+import minecraft_clone.render.TextureAtlas;
+
+// Merges coplanar, adjacent visible faces of the same block type into larger quads.
+// Quad UVs are emitted in tile units so the fragment shader repeats the atlas tile across the merged area.
+class GreedyMesher {
+    private static final BlockType[] BLOCK_TYPES = BlockType.values();
+
+    // Per CubeModel face: normal axis, normal direction, axis the texture u runs along, axis the texture v runs along
+    private static final int[][] FACE_AXES = {
+        {2,  1, 0, 1}, // Front (+z)
+        {2, -1, 0, 1}, // Back (-z)
+        {0, -1, 2, 1}, // Left (-x)
+        {0,  1, 2, 1}, // Right (+x)
+        {1,  1, 0, 2}, // Top (+y)
+        {1, -1, 0, 2}, // Bottom (-y)
+    };
+
+    private static final ThreadLocal<GreedyMesher> INSTANCE = ThreadLocal.withInitial(GreedyMesher::new);
+
+    // Scratch state reused between chunks meshed on the same thread
+    private final int[] mask = new int[Chunk.CHUNK_SIZE * Chunk.CHUNK_SIZE];
+    private final int[] pos = new int[3];
+    private final int[] min = new int[3];
+    private final int[] max = new int[3];
+
+    private GreedyMesher() {
+    }
+
+    static GreedyMesher forCurrentThread() {
+        return INSTANCE.get();
+    }
+
+    // Meshes the slices that belong to one of the chunk's mesh parts: a border part is a single slice
+    void mesh(Chunk chunk, TextureAtlas atlas, int part, MeshBuilder opaqueBuilder, MeshBuilder transparentBuilder) {
+        int size = Chunk.CHUNK_SIZE;
+
+        for (int face = 0; face < CubeModel.FACE_COUNT; face++) {
+            int normalAxis = FACE_AXES[face][0];
+            int direction = FACE_AXES[face][1];
+            int uAxis = FACE_AXES[face][2];
+            int vAxis = FACE_AXES[face][3];
+
+            for (int slice = 0; slice < size; slice++) {
+                if (Chunk.meshPart(face, slice) != part) {
+                    continue;
+                }
+                // Mark every visible face in this slice with its block type (0 = no face)
+                for (int v = 0; v < size; v++) {
+                    for (int u = 0; u < size; u++) {
+                        pos[normalAxis] = slice;
+                        pos[uAxis] = u;
+                        pos[vAxis] = v;
+                        BlockType type = chunk.getLocalBlock(pos[0], pos[1], pos[2]);
+                        int key = 0;
+                        if (type != null && type != BlockType.AIR) {
+                            pos[normalAxis] += direction;
+                            if (chunk.shouldRenderFace(pos[0], pos[1], pos[2], type)) {
+                                key = type.ordinal() + 1;
+                            }
+                        }
+                        mask[v * size + u] = key;
+                    }
+                }
+
+                // Grow each unvisited face as wide as possible along u, then as tall as possible along v
+                for (int v = 0; v < size; v++) {
+                    for (int u = 0; u < size; ) {
+                        int key = mask[v * size + u];
+                        if (key == 0) {
+                            u++;
+                            continue;
+                        }
+
+                        int width = 1;
+                        while (u + width < size && mask[v * size + u + width] == key) {
+                            width++;
+                        }
+                        int height = 1;
+                        grow:
+                        while (v + height < size) {
+                            for (int k = 0; k < width; k++) {
+                                if (mask[(v + height) * size + u + k] != key) {
+                                    break grow;
+                                }
+                            }
+                            height++;
+                        }
+
+                        min[normalAxis] = max[normalAxis] = slice;
+                        min[uAxis] = u;
+                        max[uAxis] = u + width - 1;
+                        min[vAxis] = v;
+                        max[vAxis] = v + height - 1;
+
+                        BlockType type = BLOCK_TYPES[key - 1];
+                        if (BlockRegistry.isTransparent(type)) {
+                            addQuad(chunk, atlas, type, face, width, height, transparentBuilder);
+                        } else {
+                            addQuad(chunk, atlas, type, face, width, height, opaqueBuilder);
+                        }
+
+                        for (int dv = 0; dv < height; dv++) {
+                            for (int du = 0; du < width; du++) {
+                                mask[(v + dv) * size + u + du] = 0;
+                            }
+                        }
+                        u += width;
+                    }
+                }
+            }
+        }
+    }
+
+    private void addQuad(Chunk chunk, TextureAtlas atlas, BlockType type, int face, int width, int height, MeshBuilder builder) {
+        int faceIndex = BlockRegistry.faceIndex(type.ordinal(), face);
+        float tileU = atlas.getFaceTileU(faceIndex);
+        float tileV = atlas.getFaceTileV(faceIndex);
+
+        boolean tinted = Chunk.isTinted(type, face);
+        float r = tinted ? Chunk.GRASS_TINT_R : 1.0f;
+        float g = tinted ? Chunk.GRASS_TINT_G : 1.0f;
+        float b = tinted ? Chunk.GRASS_TINT_B : 1.0f;
+        float alpha = BlockRegistry.isTransparent(type) ? 0.8f : 1.0f;
+
+        builder.beginQuad();
+        for (int i = face * CubeModel.VERTICES_PER_FACE; i < (face + 1) * CubeModel.VERTICES_PER_FACE; i++) {
+            // Stretch the unit cube corner over the merged block range
+            float x = CubeModel.FACE_CORNERS[i * 3] > 0 ? max[0] + 0.5f : min[0] - 0.5f;
+            float y = CubeModel.FACE_CORNERS[i * 3 + 1] > 0 ? max[1] + 0.5f : min[1] - 0.5f;
+            float z = CubeModel.FACE_CORNERS[i * 3 + 2] > 0 ? max[2] + 0.5f : min[2] - 0.5f;
+            float u = CubeModel.FACE_CORNER_UVS[i * 2] * width;
+            float v = CubeModel.FACE_CORNER_UVS[i * 2 + 1] * height;
+            chunk.putVertex(builder, x, y, z, u, v, r, g, b, alpha, tileU, tileV);
+        }
+        builder.endQuad();
+    }
+}
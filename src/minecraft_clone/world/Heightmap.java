@@ -0,0 +1,30 @@
+package minecraft_clone.world;
+
+// Terrain columns of one chunk: surface height and whether the surface block is glass, indexed by local x and z.
+// Immutable once built, so TerrainGenerator hands the same instance to every thread that asks.
+public class Heightmap {
+    private final byte[] heights = new byte[Chunk.CHUNK_SIZE * Chunk.CHUNK_SIZE];
+    private final long[] glassSurface = new long[Chunk.CHUNK_SIZE * Chunk.CHUNK_SIZE / Long.SIZE];
+
+    Heightmap(float[] heightNoise, float[] glassNoise) {
+        for (int i = 0; i < heights.length; i++) {
+            // Scale height to fit within chunk (0 to CHUNK_SIZE)
+            int terrainHeight = (int) ((heightNoise[i] + 1) * 0.3f * Chunk.CHUNK_SIZE) + Chunk.CHUNK_SIZE / 4;
+            heights[i] = (byte) Math.max(1, Math.min(Chunk.CHUNK_SIZE - 1, terrainHeight));
+            // Occasionally place glass blocks for testing transparency
+            if (glassNoise[i] > 0.7f) {
+                glassSurface[i >> 6] |= 1L << i;
+            }
+        }
+    }
+
+    // Number of solid blocks in the column, so the surface block sits at getHeight() - 1
+    public int getHeight(int localX, int localZ) {
+        return heights[localX + localZ * Chunk.CHUNK_SIZE];
+    }
+
+    public boolean isGlassSurface(int localX, int localZ) {
+        int i = localX + localZ * Chunk.CHUNK_SIZE;
+        return (glassSurface[i >> 6] & (1L << i)) != 0;
+    }
+}
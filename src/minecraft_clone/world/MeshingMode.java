@@ -0,0 +1,6 @@
+package minecraft_clone.world;
+
+public enum MeshingMode {
+    NAIVE,  // One quad per visible block face
+    GREEDY, // Coplanar faces of the same block merged into larger quads
+}
@@ -0,0 +1,139 @@
+package minecraft_clone.world;
+
+// Stores a chunk's blocks as indices into a small per-chunk palette, bit-packed into longs.
+// Index width grows (0 -> 1 -> 2 -> 4 -> 8 bits) as new block types are written; palette entry 0 is air (null).
+public class PalettedBlockStorage implements BlockStorage {
+    private static final int SIZE = Chunk.CHUNK_SIZE;
+    private static final int VOLUME = SIZE * SIZE * SIZE;
+    private static final int MAX_BITS_PER_ENTRY = 8;
+
+    private BlockType[] palette;
+    private int paletteSize;
+    private int bitsPerEntry;
+    private int entriesPerLong;
+    private long mask;
+    private long[] data;
+    private int nonAirCount;
+
+    public PalettedBlockStorage() {
+        clear();
+    }
+
+    @Override
+    public BlockType get(int x, int y, int z) {
+        if (bitsPerEntry == 0) {
+            return palette[0];
+        }
+        return palette[readIndex(toIndex(x, y, z))];
+    }
+
+    @Override
+    public void set(int x, int y, int z, BlockType type) {
+        if (type == BlockType.AIR) {
+            type = null; // Air is always stored as palette entry 0
+        }
+        int index = toIndex(x, y, z);
+        int oldPaletteIndex = bitsPerEntry == 0 ? 0 : readIndex(index);
+        BlockType old = palette[oldPaletteIndex];
+        if (old == type) {
+            return;
+        }
+
+        int paletteIndex = getOrAddPaletteIndex(type);
+        writeIndex(index, paletteIndex);
+
+        if (old == null) {
+            nonAirCount++;
+        } else if (type == null) {
+            nonAirCount--;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return nonAirCount == 0;
+    }
+
+    @Override
+    public void clear() {
+        palette = new BlockType[2];
+        paletteSize = 1; // Entry 0: air
+        bitsPerEntry = 0;
+        entriesPerLong = 0;
+        mask = 0;
+        data = null;
+        nonAirCount = 0;
+    }
+
+    private static int toIndex(int x, int y, int z) {
+        return (x * SIZE + y) * SIZE + z;
+    }
+
+    private int readIndex(int index) {
+        long word = data[index / entriesPerLong];
+        int shift = (index % entriesPerLong) * bitsPerEntry;
+        return (int) ((word >>> shift) & mask);
+    }
+
+    private void writeIndex(int index, int paletteIndex) {
+        int wordIndex = index / entriesPerLong;
+        int shift = (index % entriesPerLong) * bitsPerEntry;
+        data[wordIndex] = (data[wordIndex] & ~(mask << shift)) | ((long) paletteIndex << shift);
+    }
+
+    private int getOrAddPaletteIndex(BlockType type) {
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == type) {
+                return i;
+            }
+        }
+
+        if (paletteSize == palette.length) {
+            BlockType[] grown = new BlockType[palette.length * 2];
+            System.arraycopy(palette, 0, grown, 0, paletteSize);
+            palette = grown;
+        }
+        palette[paletteSize] = type;
+        int paletteIndex = paletteSize++;
+
+        // Widen the packed indices once the palette no longer fits the current bit width
+        if (paletteSize > (1 << bitsPerEntry)) {
+            resize(bitsNeededFor(paletteSize));
+        }
+        return paletteIndex;
+    }
+
+    private static int bitsNeededFor(int paletteSize) {
+        int bits = 1;
+        while ((1 << bits) < paletteSize) {
+            bits <<= 1; // 1, 2, 4, 8 so entries never straddle a long
+        }
+        if (bits > MAX_BITS_PER_ENTRY) {
+            throw new IllegalStateException("Block palette overflow: " + paletteSize + " entries");
+        }
+        return bits;
+    }
+
+    private void resize(int newBitsPerEntry) {
+        int oldBitsPerEntry = bitsPerEntry;
+        int oldEntriesPerLong = entriesPerLong;
+        long oldMask = mask;
+        long[] oldData = data;
+
+        bitsPerEntry = newBitsPerEntry;
+        entriesPerLong = 64 / newBitsPerEntry;
+        mask = (1L << newBitsPerEntry) - 1;
+        data = new long[(VOLUME + entriesPerLong - 1) / entriesPerLong];
+
+        if (oldBitsPerEntry == 0) {
+            return; // Every entry was palette index 0
+        }
+        for (int i = 0; i < VOLUME; i++) {
+            long word = oldData[i / oldEntriesPerLong];
+            int paletteIndex = (int) ((word >>> ((i % oldEntriesPerLong) * oldBitsPerEntry)) & oldMask);
+            if (paletteIndex != 0) {
+                writeIndex(i, paletteIndex);
+            }
+        }
+    }
+}
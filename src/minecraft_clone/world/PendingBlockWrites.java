@@ -0,0 +1,151 @@
+package minecraft_clone.world;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongPredicate;
+
+// Block writes that decoration of one chunk makes into another, waiting for the target chunk to take them.
+// Every target has a mailbox of batches, one batch per source chunk. Workers post with a lock-free queue append,
+// and a target applies its whole mailbox once every neighbor has been decorated (see ChunkStatus.LIT), whether or
+// not the target existed when the writes were made. Batches are applied in order of their source's key, not in the
+// order workers happened to post them, so two neighbors' ores competing for one cell always resolve the same way.
+// Batches stay in the mailbox until their source is discarded, so a target that is unloaded and generated again
+// gets the same writes; a source that is generated again posts a fresh batch in place of the one it dropped.
+// Mailboxes are only created and removed by the thread that owns the ChunkPipeline.
+class PendingBlockWrites {
+    static final class Batch {
+        final long sourceKey;
+        private short[] cells = new short[32]; // x | z << 4 | y << 8 in the target chunk
+        private BlockType[] types = new BlockType[32];
+        private int size;
+
+        Batch(long sourceKey) {
+            this.sourceKey = sourceKey;
+        }
+
+        void add(int x, int y, int z, BlockType type) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+                types = Arrays.copyOf(types, size * 2);
+            }
+            cells[size] = (short) (x | z << 4 | y << 8);
+            types[size] = type;
+            size++;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    private static final Comparator<Batch> BY_SOURCE = (a, b) -> Long.compare(a.sourceKey, b.sourceKey);
+    private static final Batch[] NO_BATCHES = new Batch[0];
+
+    private final ChunkMap<ConcurrentLinkedQueue<Batch>> mailboxes = new ChunkMap<>();
+
+    // Makes sure every chunk a source at (chunkX, chunkZ) can write into has a mailbox; call before decorating it
+    void prepare(int chunkX, int chunkZ) {
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                long chunkKey = ChunkMap.key(chunkX + dx, chunkZ + dz);
+                if ((dx != 0 || dz != 0) && !mailboxes.containsKey(chunkKey)) {
+                    mailboxes.put(chunkKey, new ConcurrentLinkedQueue<>());
+                }
+            }
+        }
+    }
+
+    // Posts a source's batches, indexed (dx + 1) + (dz + 1) * 3 around it as TerrainDecorator returns them. Safe from
+    // any thread. A mailbox outlives every chunk around it that has a pipeline entry (see discard), so it is only
+    // gone here once the source itself has been discarded; those writes are dropped and posted again if the source
+    // is ever generated again.
+    void post(int sourceX, int sourceZ, Batch[] batches) {
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                Batch batch = batches[(dx + 1) + (dz + 1) * 3];
+                ConcurrentLinkedQueue<Batch> mailbox = mailboxes.get(sourceX + dx, sourceZ + dz);
+                if (batch != null && mailbox != null && !batch.isEmpty()) {
+                    mailbox.add(batch);
+                }
+            }
+        }
+    }
+
+    // Takes back batches posted by a source that was discarded while it was being decorated, since discard() may
+    // have run before they were posted. Safe from any thread; only these batch objects are removed, not ones a
+    // newer entry for the same chunk posted.
+    void retract(int sourceX, int sourceZ, Batch[] batches) {
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                Batch batch = batches[(dx + 1) + (dz + 1) * 3];
+                ConcurrentLinkedQueue<Batch> mailbox = mailboxes.get(sourceX + dx, sourceZ + dz);
+                if (batch != null && mailbox != null) {
+                    mailbox.remove(batch);
+                }
+            }
+        }
+    }
+
+    // Writes every batch waiting for the chunk into its blocks. Must not overlap with decoration of any neighbor.
+    void apply(BlockStorage blocks, int chunkX, int chunkZ) {
+        ConcurrentLinkedQueue<Batch> mailbox = mailboxes.get(chunkX, chunkZ);
+        if (mailbox == null) {
+            return;
+        }
+        Batch[] batches = mailbox.toArray(NO_BATCHES);
+        Arrays.sort(batches, BY_SOURCE);
+        for (Batch batch : batches) {
+            for (int i = 0; i < batch.size; i++) {
+                int cell = batch.cells[i];
+                int x = cell & 15;
+                int z = (cell >> 4) & 15;
+                int y = cell >> 8;
+                if (TerrainDecorator.canReplace(batch.types[i], blocks.get(x, y, z))) {
+                    blocks.set(x, y, z, batch.types[i]);
+                }
+            }
+        }
+    }
+
+    // Drops what a discarded chunk posted, and any mailbox around it left empty that nothing can post to or apply any
+    // more: neither its target nor any source around it still has a pipeline entry. A source's entry lives from
+    // prepare() until after its post(), so its mailboxes are kept while it decorates even if their targets are gone.
+    void discard(long chunkKey, LongPredicate hasEntry) {
+        int chunkX = ChunkMap.keyX(chunkKey);
+        int chunkZ = ChunkMap.keyZ(chunkKey);
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                long targetKey = ChunkMap.key(chunkX + dx, chunkZ + dz);
+                ConcurrentLinkedQueue<Batch> mailbox = mailboxes.get(targetKey);
+                if (mailbox == null) {
+                    continue;
+                }
+                mailbox.removeIf(batch -> batch.sourceKey == chunkKey);
+                if (mailbox.isEmpty() && !hasEntryAround(chunkX + dx, chunkZ + dz, hasEntry)) {
+                    mailboxes.remove(targetKey);
+                }
+            }
+        }
+    }
+
+    // True if the chunk or any of its 8 neighbors has an entry
+    private static boolean hasEntryAround(int chunkX, int chunkZ, LongPredicate hasEntry) {
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (hasEntry.test(ChunkMap.key(chunkX + dx, chunkZ + dz))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    void clear() {
+        mailboxes.clear();
+    }
+
+    int getMailboxCount() {
+        return mailboxes.size();
+    }
+}
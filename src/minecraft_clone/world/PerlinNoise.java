@@ -1,5 +1,6 @@
 package minecraft_clone.world;
 
+import java.util.Arrays;
 import java.util.Random;
 
 public class PerlinNoise {
@@ -49,6 +50,91 @@ public class PerlinNoise {
         return lerp(lerpX1, lerpX2, v);
     }
 
+    // Fills out[x + z * width] for a width x depth grid of whole-block coordinates starting at (originX, originZ)
+    // with octaves of noise, each at twice the previous frequency and persistence times the previous amplitude.
+    // Gives exactly the floats that summing noise((originX + x) * frequency, (originZ + z) * frequency) * amplitude
+    // octave by octave would, but does the per-column work once per column and the per-row work once per row.
+    public void fillOctaves(float[] out, float originX, float originZ, int width, int depth,
+                            int octaves, float frequency, float persistence) {
+        int[] cellX = new int[width];
+        float[] fractionX = new float[width];
+        float[] fadeX = new float[width];
+        Arrays.fill(out, 0, width * depth, 0.0f);
+        float amplitude = 1;
+
+        for (int octave = 0; octave < octaves; octave++) {
+            for (int x = 0; x < width; x++) {
+                float sampleX = (originX + x) * frequency;
+                int floorX = floor(sampleX);
+                cellX[x] = floorX & 255;
+                fractionX[x] = (float) (sampleX - (double) floorX); // Same rounding as x -= Math.floor(x)
+                fadeX[x] = fade(fractionX[x]);
+            }
+            for (int z = 0; z < depth; z++) {
+                float sampleY = (originZ + z) * frequency;
+                int floorY = floor(sampleY);
+                int Y = floorY & 255;
+                float y = (float) (sampleY - (double) floorY);
+                float v = fade(y);
+                int rowA = permutation[Y];
+                int rowB = permutation[Y + 1];
+                int offset = z * width;
+
+                for (int x = 0; x < width; x++) {
+                    int X = cellX[x];
+                    float fx = fractionX[x];
+                    float u = fadeX[x];
+
+                    float gradAA = grad(permutation[permutation[X + rowA]], fx, y);
+                    float gradBA = grad(permutation[permutation[X + 1 + rowA]], fx - 1, y);
+                    float gradAB = grad(permutation[permutation[X + rowB]], fx, y - 1);
+                    float gradBB = grad(permutation[permutation[X + 1 + rowB]], fx - 1, y - 1);
+
+                    float lerpX1 = lerp(gradAA, gradBA, u);
+                    float lerpX2 = lerp(gradAB, gradBB, u);
+                    out[offset + x] += lerp(lerpX1, lerpX2, v) * amplitude;
+                }
+            }
+            amplitude *= persistence;
+            frequency *= 2.0f;
+        }
+    }
+
+    // Math.floor without the round trip through double, for coordinates well inside the int range
+    private static int floor(float value) {
+        int truncated = (int) value;
+        return value < truncated ? truncated - 1 : truncated;
+    }
+
+    // Improved Perlin noise in 3D; with z fixed at a whole number it is not the same field as noise(x, y)
+    public float noise(float x, float y, float z) {
+        int floorX = floor(x);
+        int floorY = floor(y);
+        int floorZ = floor(z);
+        int X = floorX & 255;
+        int Y = floorY & 255;
+        int Z = floorZ & 255;
+        x -= floorX;
+        y -= floorY;
+        z -= floorZ;
+        float u = fade(x);
+        float v = fade(y);
+        float w = fade(z);
+
+        int a = permutation[X] + Y;
+        int aa = permutation[a] + Z;
+        int ab = permutation[a + 1] + Z;
+        int b = permutation[X + 1] + Y;
+        int ba = permutation[b] + Z;
+        int bb = permutation[b + 1] + Z;
+
+        float lerpNear = lerp(lerp(grad(permutation[aa], x, y, z), grad(permutation[ba], x - 1, y, z), u),
+                lerp(grad(permutation[ab], x, y - 1, z), grad(permutation[bb], x - 1, y - 1, z), u), v);
+        float lerpFar = lerp(lerp(grad(permutation[aa + 1], x, y, z - 1), grad(permutation[ba + 1], x - 1, y, z - 1), u),
+                lerp(grad(permutation[ab + 1], x, y - 1, z - 1), grad(permutation[bb + 1], x - 1, y - 1, z - 1), u), v);
+        return lerp(lerpNear, lerpFar, w);
+    }
+
     private float fade(float t) {
         return t * t * t * (t * (t * 6 - 15) + 10);
     }
@@ -63,4 +149,11 @@ public class PerlinNoise {
         float v = h < 4 ? y : h == 12 || h == 14 ? x : 0;
         return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v);
     }
+
+    private float grad(int hash, float x, float y, float z) {
+        int h = hash & 15;
+        float u = h < 8 ? x : y;
+        float v = h < 4 ? y : h == 12 || h == 14 ? x : z;
+        return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v);
+    }
 }
@@ -0,0 +1,152 @@
+package minecraft_clone.world;
+
+import java.util.Random;
+
+// DECORATED stage: places oak trees on grass and ore veins in stone. Features start inside the chunk being
+// decorated but may spill up to one chunk past its border; those writes are collected per neighbor and returned for
+// PendingBlockWrites instead of touching the neighbor, so decorating never waits on or locks another chunk.
+// Each chunk's features come from a random seeded by the world seed and the chunk's position, so a chunk decorated
+// again places exactly the same blocks. Safe to call from any thread.
+public class TerrainDecorator {
+    private static final int MAX_TREES = 3; // Attempts per chunk
+    private static final int MIN_TRUNK = 4;
+    private static final int MAX_TRUNK = 5;
+
+    // Ore veins: type, veins per chunk, blocks per vein, highest starting y
+    private static final BlockType[] ORES = {
+        BlockType.COAL_ORE, BlockType.IRON_ORE, BlockType.GOLD_ORE, BlockType.REDSTONE_ORE, BlockType.DIAMOND_ORE
+    };
+    private static final int[] VEINS_PER_CHUNK = {6, 4, 1, 2, 1};
+    private static final int[] VEIN_SIZE = {8, 6, 5, 5, 4};
+    private static final int[] VEIN_MAX_Y = {12, 10, 6, 6, 4};
+    // One block along an axis per step of a vein's walk
+    private static final int[] STEP_X = {1, -1, 0, 0, 0, 0};
+    private static final int[] STEP_Y = {0, 0, 1, -1, 0, 0};
+    private static final int[] STEP_Z = {0, 0, 0, 0, 1, -1};
+
+    private final long seed;
+
+    public TerrainDecorator(long seed) {
+        this.seed = seed;
+    }
+
+    // Returns the writes into neighbors, one batch per neighbor indexed (dx + 1) + (dz + 1) * 3, null where there are none
+    PendingBlockWrites.Batch[] decorate(BlockStorage blocks, int chunkX, int chunkZ) {
+        Random random = new Random(seed ^ ChunkMap.key(chunkX, chunkZ) * 0x9E3779B97F4A7C15L);
+        Output output = new Output(blocks, ChunkMap.key(chunkX, chunkZ));
+
+        for (int ore = 0; ore < ORES.length; ore++) {
+            for (int vein = 0; vein < VEINS_PER_CHUNK[ore]; vein++) {
+                placeVein(output, random, ORES[ore], VEIN_SIZE[ore], VEIN_MAX_Y[ore]);
+            }
+        }
+        int trees = random.nextInt(MAX_TREES + 1);
+        for (int i = 0; i < trees; i++) {
+            placeTree(output, random, random.nextInt(Chunk.CHUNK_SIZE), random.nextInt(Chunk.CHUNK_SIZE));
+        }
+        return output.neighborWrites;
+    }
+
+    // A random walk from a point in the chunk, turning stone into ore
+    private static void placeVein(Output output, Random random, BlockType ore, int size, int maxY) {
+        int x = random.nextInt(Chunk.CHUNK_SIZE);
+        int y = 1 + random.nextInt(maxY);
+        int z = random.nextInt(Chunk.CHUNK_SIZE);
+        for (int i = 0; i < size; i++) {
+            output.set(x, y, z, ore);
+            int step = random.nextInt(STEP_X.length);
+            x += STEP_X[step];
+            y += STEP_Y[step];
+            z += STEP_Z[step];
+        }
+    }
+
+    // Oak tree on the grass at the top of the column: a trunk with two wide layers of leaves and a narrow cap
+    private static void placeTree(Output output, Random random, int x, int z) {
+        int ground = -1;
+        for (int y = Chunk.CHUNK_SIZE - 1; y >= 0; y--) {
+            BlockType type = output.blocks.get(x, y, z);
+            if (type != null && type != BlockType.AIR) {
+                ground = type == BlockType.GRASS ? y : -1;
+                break;
+            }
+        }
+        int trunk = MIN_TRUNK + random.nextInt(MAX_TRUNK - MIN_TRUNK + 1);
+        if (ground < 0 || ground + trunk >= Chunk.CHUNK_SIZE) {
+            return;
+        }
+        for (int y = ground + 1; y <= ground + trunk; y++) {
+            BlockType type = output.blocks.get(x, y, z);
+            if (type != null && type != BlockType.AIR) {
+                return; // Overhang in the way
+            }
+        }
+
+        output.set(x, ground, z, BlockType.DIRT);
+        int top = ground + trunk;
+        for (int y = top - 2; y <= top + 1; y++) {
+            int radius = y <= top - 1 ? 2 : 1;
+            for (int dz = -radius; dz <= radius; dz++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    // Round off the corners, at random on the lower layers
+                    boolean corner = Math.abs(dx) == radius && Math.abs(dz) == radius;
+                    if (corner && (y == top + 1 || random.nextBoolean())) {
+                        continue;
+                    }
+                    output.set(x + dx, y, z + dz, BlockType.OAK_LEAVES);
+                }
+            }
+        }
+        for (int y = ground + 1; y <= top; y++) {
+            output.set(x, y, z, BlockType.OAK_LOG);
+        }
+    }
+
+    // Decides which writes go through, for this chunk's own writes and for deferred ones alike: ore only replaces
+    // stone, leaves only fill air, and logs and dirt may also replace leaves. Trees come out the same whatever order
+    // they land in; between two ores the first one wins, which PendingBlockWrites keeps to a fixed order.
+    static boolean canReplace(BlockType placed, BlockType existing) {
+        boolean air = existing == null || existing == BlockType.AIR;
+        switch (placed) {
+            case OAK_LEAVES:
+                return air;
+            case OAK_LOG:
+                return air || existing == BlockType.OAK_LEAVES;
+            case DIRT:
+                return existing == BlockType.GRASS;
+            default:
+                return existing == BlockType.STONE;
+        }
+    }
+
+    // Where one chunk's decoration writes go: its own blocks directly, everything else into a batch per neighbor
+    private static final class Output {
+        final BlockStorage blocks;
+        final long sourceKey;
+        final PendingBlockWrites.Batch[] neighborWrites = new PendingBlockWrites.Batch[9]; // (dx + 1) + (dz + 1) * 3
+
+        Output(BlockStorage blocks, long sourceKey) {
+            this.blocks = blocks;
+            this.sourceKey = sourceKey;
+        }
+
+        void set(int x, int y, int z, BlockType type) {
+            if (y < 0 || y >= Chunk.CHUNK_SIZE) {
+                return;
+            }
+            int dx = Math.floorDiv(x, Chunk.CHUNK_SIZE);
+            int dz = Math.floorDiv(z, Chunk.CHUNK_SIZE);
+            if (dx == 0 && dz == 0) {
+                if (canReplace(type, blocks.get(x, y, z))) {
+                    blocks.set(x, y, z, type);
+                }
+                return;
+            }
+            int index = (dx + 1) + (dz + 1) * 3;
+            if (neighborWrites[index] == null) {
+                neighborWrites[index] = new PendingBlockWrites.Batch(sourceKey);
+            }
+            neighborWrites[index].add(Math.floorMod(x, Chunk.CHUNK_SIZE), y, Math.floorMod(z, Chunk.CHUNK_SIZE), type);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package minecraft_clone.world;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Owns the terrain noise and is the one place terrain shape is worked out. Heightmaps are computed a chunk
+// at a time and kept in a bounded LRU cache, so filling chunks, finding the spawn height and any other height
+// query for the same area share one computation. Safe to call from any thread.
+public class TerrainGenerator {
+    private static final int OCTAVES = 4;
+    private static final float BASE_FREQUENCY = 0.01f;
+    private static final float PERSISTENCE = 0.5f;
+    private static final float GLASS_FREQUENCY = 0.1f;
+
+    // DENSITY shape: 3D noise is sampled on a lattice of CELL_XZ x CELL_Y x CELL_XZ block cells and
+    // trilinearly interpolated in between, which costs 75 samples per chunk instead of 4096
+    private static final int CELL_XZ = 4;
+    private static final int CELL_Y = 8;
+    private static final int LATTICE_XZ = Chunk.CHUNK_SIZE / CELL_XZ + 1;
+    private static final int LATTICE_Y = Chunk.CHUNK_SIZE / CELL_Y + 1;
+    private static final float DENSITY_FREQUENCY = 0.04f;
+    private static final float SURFACE_FALLOFF = 6.0f; // Blocks from the heightmap surface for the bias to reach 1
+    private static final float DENSITY_AMPLITUDE = 1.2f;
+
+    private final PerlinNoise noise;
+    private final TerrainShape shape;
+    private final int cacheCapacity; // In heightmaps; 0 disables the cache
+    private final LinkedHashMap<Long, Heightmap> cache; // Access order, guarded by itself
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TerrainGenerator(long seed, int cacheCapacity, TerrainShape shape) {
+        this.noise = new PerlinNoise(seed);
+        this.shape = shape;
+        this.cacheCapacity = cacheCapacity;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Heightmap> eldest) {
+                return size() > TerrainGenerator.this.cacheCapacity;
+            }
+        };
+    }
+
+    public Heightmap getHeightmap(int chunkX, int chunkZ) {
+        long key = ChunkMap.key(chunkX, chunkZ);
+        synchronized (cache) {
+            Heightmap cached = cache.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+
+        // Computed outside the lock; two threads missing on the same chunk both compute it and the last one is kept
+        Heightmap heightmap = generate(chunkX, chunkZ);
+        if (cacheCapacity > 0) {
+            synchronized (cache) {
+                cache.put(key, heightmap);
+            }
+        }
+        return heightmap;
+    }
+
+    // NOISE stage: which cells of a chunk are solid, as a bit set with cell index x | z << 4 | y << 8
+    public long[] generateSolid(int chunkX, int chunkZ) {
+        int size = Chunk.CHUNK_SIZE;
+        Heightmap heightmap = getHeightmap(chunkX, chunkZ);
+        long[] solid = new long[size * size * size / Long.SIZE];
+        if (shape == TerrainShape.DENSITY) {
+            markDensitySolid(solid, heightmap, chunkX, chunkZ);
+        } else {
+            for (int z = 0; z < size; z++) {
+                for (int x = 0; x < size; x++) {
+                    for (int y = 0, height = heightmap.getHeight(x, z); y < height; y++) {
+                        int cell = x | z << 4 | y << 8;
+                        solid[cell >> 6] |= 1L << cell;
+                    }
+                }
+            }
+        }
+        return solid;
+    }
+
+    // SURFACE stage: each column of solid cells is layered from the top down with GRASS (or GLASS), two DIRT
+    // and STONE below. Solid runs under a cave or overhang are all STONE.
+    public void layerSurface(BlockStorage blocks, long[] solid, int chunkX, int chunkZ) {
+        int size = Chunk.CHUNK_SIZE;
+        Heightmap heightmap = getHeightmap(chunkX, chunkZ);
+        for (int z = 0; z < size; z++) {
+            for (int x = 0; x < size; x++) {
+                boolean topRun = true;
+                int depth = -1; // Blocks below the top of the current solid run, -1 in air
+                for (int y = size - 1; y >= 0; y--) {
+                    int cell = x | z << 4 | y << 8;
+                    if ((solid[cell >> 6] & (1L << cell)) == 0) {
+                        // Everything above the surface stays air, which is the storage default
+                        if (depth >= 0) {
+                            topRun = false;
+                        }
+                        depth = -1;
+                        continue;
+                    }
+                    depth++;
+                    if (!topRun || depth >= 3) {
+                        blocks.set(x, y, z, BlockType.STONE);
+                    } else if (depth >= 1) {
+                        blocks.set(x, y, z, BlockType.DIRT);
+                    } else if (heightmap.isGlassSurface(x, z)) {
+                        blocks.set(x, y, z, BlockType.GLASS);
+                    } else {
+                        blocks.set(x, y, z, BlockType.GRASS);
+                    }
+                }
+            }
+        }
+    }
+
+    // Solid where the density is positive: a bias that falls off with height above the heightmap surface,
+    // plus interpolated 3D noise that carves caves below it and builds overhangs above it
+    private void markDensitySolid(long[] solid, Heightmap heightmap, int chunkX, int chunkZ) {
+        int size = Chunk.CHUNK_SIZE;
+        float originX = chunkX * size;
+        float originZ = chunkZ * size;
+        // Lattice points on the chunk's edges land on the same world positions as the neighbor's, so chunks join up
+        float[] lattice = new float[LATTICE_XZ * LATTICE_Y * LATTICE_XZ];
+        for (int ly = 0; ly < LATTICE_Y; ly++) {
+            for (int lz = 0; lz < LATTICE_XZ; lz++) {
+                for (int lx = 0; lx < LATTICE_XZ; lx++) {
+                    lattice[latticeIndex(lx, ly, lz)] = noise.noise((originX + lx * CELL_XZ) * DENSITY_FREQUENCY,
+                            ly * CELL_Y * DENSITY_FREQUENCY, (originZ + lz * CELL_XZ) * DENSITY_FREQUENCY);
+                }
+            }
+        }
+
+        float[] row = new float[LATTICE_XZ]; // Lattice columns of one (y, z) row, already interpolated in y and z
+        for (int y = 0; y < size; y++) {
+            int ly = y / CELL_Y;
+            float ty = (float) (y % CELL_Y) / CELL_Y;
+            for (int z = 0; z < size; z++) {
+                int lz = z / CELL_XZ;
+                float tz = (float) (z % CELL_XZ) / CELL_XZ;
+                for (int lx = 0; lx < LATTICE_XZ; lx++) {
+                    float near = lerp(lattice[latticeIndex(lx, ly, lz)], lattice[latticeIndex(lx, ly + 1, lz)], ty);
+                    float far = lerp(lattice[latticeIndex(lx, ly, lz + 1)], lattice[latticeIndex(lx, ly + 1, lz + 1)], ty);
+                    row[lx] = lerp(near, far, tz);
+                }
+                for (int x = 0; x < size; x++) {
+                    int cell = x | z << 4 | y << 8;
+                    float noiseValue = lerp(row[x / CELL_XZ], row[x / CELL_XZ + 1], (float) (x % CELL_XZ) / CELL_XZ);
+                    float density = (heightmap.getHeight(x, z) - 0.5f - y) / SURFACE_FALLOFF + noiseValue * DENSITY_AMPLITUDE;
+                    // Keep a floor so nothing can see out of the bottom of the world
+                    if (y == 0 || density > 0.0f) {
+                        solid[cell >> 6] |= 1L << cell;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int latticeIndex(int lx, int ly, int lz) {
+        return lx + LATTICE_XZ * (lz + LATTICE_XZ * ly);
+    }
+
+    private static float lerp(float a, float b, float t) {
+        return a + t * (b - a);
+    }
+
+    public TerrainShape getShape() {
+        return shape;
+    }
+
+    // Height of the terrain column containing the given world position, in blocks above the bottom of the chunk
+    public int getHeight(float worldX, float worldZ) {
+        int blockX = (int) Math.floor(worldX);
+        int blockZ = (int) Math.floor(worldZ);
+        Heightmap heightmap = getHeightmap(Math.floorDiv(blockX, Chunk.CHUNK_SIZE), Math.floorDiv(blockZ, Chunk.CHUNK_SIZE));
+        return heightmap.getHeight(Math.floorMod(blockX, Chunk.CHUNK_SIZE), Math.floorMod(blockZ, Chunk.CHUNK_SIZE));
+    }
+
+    private Heightmap generate(int chunkX, int chunkZ) {
+        int size = Chunk.CHUNK_SIZE;
+        float originX = chunkX * size;
+        float originZ = chunkZ * size;
+        float[] heightNoise = new float[size * size];
+        float[] glassNoise = new float[size * size];
+        // Generate height using multiple octaves of Perlin noise for more realistic terrain
+        noise.fillOctaves(heightNoise, originX, originZ, size, size, OCTAVES, BASE_FREQUENCY, PERSISTENCE);
+        noise.fillOctaves(glassNoise, originX, originZ, size, size, 1, GLASS_FREQUENCY, 1.0f);
+        return new Heightmap(heightNoise, glassNoise);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public float getHitRate() {
+        long hits = this.hits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0.0f : (float) hits / total;
+    }
+
+    public String getStats() {
+        int cached;
+        synchronized (cache) {
+            cached = cache.size();
+        }
+        return String.format("Heightmap cache - Tiles: %d/%d, Hits: %d, Misses: %d (%.1f%% hit rate)",
+                cached, cacheCapacity, getHits(), getMisses(), getHitRate() * 100.0f);
+    }
+}
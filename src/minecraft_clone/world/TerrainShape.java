@@ -0,0 +1,6 @@
+package minecraft_clone.world;
+
+public enum TerrainShape {
+    HEIGHTMAP, // Solid from the bottom of the chunk up to the column height
+    DENSITY,   // Heightmap surface reshaped by 3D noise, giving caves and overhangs
+}